@@ -25,6 +25,12 @@ java {
     toolchain.languageVersion = JavaLanguageVersion.of(24)
 }
 
+// the tests compare the vector path of ByteScanner with the scalar one
+tasks.compileTestJava {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
 tasks.test {
     useJUnitPlatform()
+    jvmArgs("--add-modules", "jdk.incubator.vector")
 }
\ No newline at end of file
@@ -1,3 +1,7 @@
 #!/usr/bin/env sh
 BIN_DIR="$(dirname "$0")/build/install/compiler/bin"
+# the incubator module prints a warning on each run, so it is only added on request, see ByteScanner
+case "$JAVA_OPTS" in
+  *-DvectorLexer=true*) JAVA_OPTS="$JAVA_OPTS --add-modules jdk.incubator.vector"; export JAVA_OPTS ;;
+esac
 $BIN_DIR/compiler "$@"
@@ -0,0 +1,54 @@
+package edu.kit.kastel.vads.compiler;
+
+import edu.kit.kastel.vads.compiler.lexer.ByteScanner;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+/// Resolves offsets in a source to lines and columns.
+/// The start offsets of all lines are computed once, when the first position is requested.
+/// Each `\n` and each `\r` starts a new line.
+public final class LineIndex {
+    private final MemorySegment source;
+    private volatile int @Nullable [] lineStarts;
+
+    public LineIndex(MemorySegment source) {
+        this.source = source;
+    }
+
+    public Position position(int offset) {
+        int[] starts = lineStarts();
+        int line = Arrays.binarySearch(starts, offset);
+        if (line < 0) {
+            // not a line start itself, so it belongs to the line before the insertion point
+            line = -line - 2;
+        }
+        return new Position.SimplePosition(line, offset - starts[line]);
+    }
+
+    private int[] lineStarts() {
+        int[] starts = this.lineStarts;
+        if (starts == null) {
+            // computing the index twice in case of a race is harmless
+            starts = computeLineStarts();
+            this.lineStarts = starts;
+        }
+        return starts;
+    }
+
+    private int[] computeLineStarts() {
+        int[] starts = new int[64];
+        int lines = 1;
+        int length = (int) this.source.byteSize();
+        ByteScanner scanner = ByteScanner.INSTANCE;
+        for (int i = scanner.findLineBreak(this.source, 0, length); i < length;
+            i = scanner.findLineBreak(this.source, i + 1, length)) {
+            if (lines == starts.length) {
+                starts = Arrays.copyOf(starts, lines * 2);
+            }
+            starts[lines++] = i + 1;
+        }
+        return Arrays.copyOf(starts, lines);
+    }
+}
@@ -3,12 +3,15 @@ package edu.kit.kastel.vads.compiler;
 import edu.kit.kastel.vads.compiler.backend.aasm.CodeGenerator;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
-import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.ir.SyntaxDirectedTranslation;
+import edu.kit.kastel.vads.compiler.ir.optimize.OptimizationLevel;
+import edu.kit.kastel.vads.compiler.ir.optimize.PassManager;
+import edu.kit.kastel.vads.compiler.ir.optimize.PassStatistics;
 import edu.kit.kastel.vads.compiler.ir.util.YCompPrinter;
 import edu.kit.kastel.vads.compiler.lexer.Lexer;
 import edu.kit.kastel.vads.compiler.parser.ParseException;
 import edu.kit.kastel.vads.compiler.parser.Parser;
-import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
 import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
 import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
@@ -17,49 +20,140 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 public class Main {
+    // expensive passes are skipped for functions with more live nodes, see PassManager
+    private static final int DEFAULT_PASS_BUDGET = 500_000;
+
     public static void main(String[] args) throws IOException {
+        OptimizationLevel level = OptimizationLevel.O1;
+        if (args.length == 3) {
+            OptimizationLevel flag = OptimizationLevel.fromFlag(args[0]);
+            if (flag == null) {
+                System.err.println("Invalid arguments: Expected -O0, -O1, -O2 or -O3 instead of " + args[0]);
+                System.exit(3);
+            }
+            level = flag;
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
         if (args.length != 2) {
             System.err.println("Invalid arguments: Expected one input file and one output file");
             System.exit(3);
         }
         Path input = Path.of(args[0]);
         Path output = Path.of(args[1]);
-        ProgramTree program = lexAndParse(input);
-        try {
-            new SemanticAnalysis(program).analyze();
-        } catch (SemanticException e) {
-            e.printStackTrace();
-            System.exit(7);
-            return;
-        }
-        List<IrGraph> graphs = new ArrayList<>();
-        for (FunctionTree function : program.topLevelTrees()) {
-            SsaTranslation translation = new SsaTranslation(function, new LocalValueNumbering());
-            graphs.add(translation.translate());
+        boolean printStatistics = Boolean.getBoolean("passStatistics");
+        PassManager passes = new PassManager(
+            level, Integer.getInteger("passBudget", DEFAULT_PASS_BUDGET), printStatistics
+        );
+        List<CompiledFunction> functions;
+        if (Boolean.getBoolean("syntaxDirected")) {
+            List<IrGraph> graphs = translateWhileParsing(input, passes);
+            checkFunctionNames(graphs.stream().map(IrGraph::name).toList());
+            functions = generateCode(graphs, passes);
+        } else if (Boolean.getBoolean("flatAst")) {
+            // only the flat form of the functions is kept
+            List<AstArena> arenas = lexAndParseFunctions(input).stream().map(AstArena::of).toList();
+            List<Callable<CompiledFunction>> tasks = new ArrayList<>();
+            for (AstArena arena : arenas) {
+                tasks.add(() -> compile(
+                    new SemanticAnalysis(List.of(arena)), new SsaTranslation(arena, passes.newOptimizer()), passes
+                ));
+            }
+            functions = compileInParallel(tasks);
+        } else {
+            functions = compileInParallel(compileTasks(lexAndParseFunctions(input), passes));
         }
 
         if ("vcg".equals(System.getenv("DUMP_GRAPHS")) || "vcg".equals(System.getProperty("dumpGraphs"))) {
             Path tmp = output.toAbsolutePath().resolveSibling("graphs");
             Files.createDirectory(tmp);
-            for (IrGraph graph : graphs) {
-                dumpGraph(graph, tmp, "before-codegen");
+            for (CompiledFunction function : functions) {
+                dumpGraph(function.graph(), tmp, "before-codegen");
             }
         }
 
         // TODO: generate assembly and invoke gcc instead of generating abstract assembly
-        String s = new CodeGenerator().generateCode(graphs);
+        StringBuilder s = new StringBuilder();
+        for (CompiledFunction function : functions) {
+            s.append(function.code());
+        }
         Files.writeString(output, s);
+
+        if (printStatistics) {
+            List<PassStatistics> statistics = new ArrayList<>();
+            for (CompiledFunction function : functions) {
+                statistics.addAll(function.statistics());
+            }
+            if (!statistics.isEmpty()) {
+                System.err.print(PassManager.summary(statistics));
+            }
+        }
+    }
+
+    /// Compiles each function as a separate task, see [Parallel#invokeAll(List)].
+    /// Functions do not depend on each other, and each one is analyzed before it is translated.
+    private static List<CompiledFunction> compileInParallel(List<Callable<CompiledFunction>> tasks) {
+        try {
+            return Parallel.invokeAll(tasks);
+        } catch (SemanticException e) {
+            e.printStackTrace();
+            System.exit(7);
+            throw new AssertionError("unreachable");
+        }
+    }
+
+    /// {@return a task for each function that analyzes and compiles it}
+    static List<Callable<CompiledFunction>> compileTasks(List<FunctionTree> functions, PassManager passes) {
+        List<Callable<CompiledFunction>> tasks = new ArrayList<>();
+        for (FunctionTree function : functions) {
+            tasks.add(() -> compile(
+                new SemanticAnalysis(function), new SsaTranslation(function, passes.newOptimizer()), passes
+            ));
+        }
+        return tasks;
+    }
+
+    private static CompiledFunction compile(SemanticAnalysis analysis, SsaTranslation translation, PassManager passes) {
+        analysis.analyze();
+        return generateCode(translation.translate(), passes);
+    }
+
+    private static List<CompiledFunction> generateCode(List<IrGraph> graphs, PassManager passes) {
+        List<Callable<CompiledFunction>> tasks = new ArrayList<>();
+        for (IrGraph graph : graphs) {
+            tasks.add(() -> generateCode(graph, passes));
+        }
+        return Parallel.invokeAll(tasks);
+    }
+
+    private static CompiledFunction generateCode(IrGraph graph, PassManager passes) {
+        List<PassStatistics> statistics = passes.run(graph);
+        return new CompiledFunction(graph, new CodeGenerator().generateCode(graph), statistics);
+    }
+
+    /// {@return the functions of the program, which have distinct names}
+    private static List<FunctionTree> lexAndParseFunctions(Path input) throws IOException {
+        List<FunctionTree> functions = lexAndParse(input).topLevelTrees();
+        checkFunctionNames(functions.stream().map(function -> function.name().name().asString()).toList());
+        return functions;
+    }
+
+    private static void checkFunctionNames(List<String> names) {
+        try {
+            SemanticAnalysis.checkFunctionNames(names);
+        } catch (SemanticException e) {
+            e.printStackTrace();
+            System.exit(7);
+        }
     }
 
     private static ProgramTree lexAndParse(Path input) throws IOException {
         try {
-            Lexer lexer = Lexer.forString(Files.readString(input));
-            TokenSource tokenSource = new TokenSource(lexer);
-            Parser parser = new Parser(tokenSource);
-            return parser.parseProgram();
+            return Parser.parseInParallel(Lexer.forFile(input));
         } catch (ParseException e) {
             e.printStackTrace();
             System.exit(42);
@@ -67,6 +161,29 @@ public class Main {
         }
     }
 
+    /// Translates the functions directly while parsing, without building a tree.
+    /// The semantic checks are those of [SemanticAnalysis], but they stop the parser at the first error.
+    /// The rest of the program is only parsed then, so syntax errors and duplicate function names after it
+    /// take precedence as they do without this mode.
+    private static List<IrGraph> translateWhileParsing(Path input, PassManager passes) throws IOException {
+        try {
+            return Parser.parseInParallel(
+                Lexer.forFile(input), () -> new SyntaxDirectedTranslation(passes::newOptimizer)
+            );
+        } catch (ParseException e) {
+            e.printStackTrace();
+            System.exit(42);
+        } catch (SemanticException e) {
+            lexAndParseFunctions(input);
+            e.printStackTrace();
+            System.exit(7);
+        }
+        throw new AssertionError("unreachable");
+    }
+
+    record CompiledFunction(IrGraph graph, String code, List<PassStatistics> statistics) {
+    }
+
     private static void dumpGraph(IrGraph graph, Path path, String key) throws IOException {
         Files.writeString(
             path.resolve(graph.name() + "-" + key + ".vcg"),
@@ -0,0 +1,68 @@
+package edu.kit.kastel.vads.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/// Runs independent tasks, such as the compilation of separate functions, on the common [ForkJoinPool].
+public final class Parallel {
+    private Parallel() {
+
+    }
+
+    /// Runs all tasks and returns their results in the order of the tasks.
+    /// If several tasks fail, the exception of the first one is thrown,
+    /// just like when running them sequentially.
+    /// Without parallelism, the tasks run sequentially on the calling thread.
+    public static <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        return invokeAll(ForkJoinPool.commonPool(), tasks);
+    }
+
+    /// Runs all tasks on the given pool, see [#invokeAll(List)].
+    static <T> List<T> invokeAll(ForkJoinPool pool, List<? extends Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (pool.getParallelism() <= 1 || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        for (Future<T> result : pool.invokeAll(tasks)) {
+            results.add(join(result));
+        }
+        return results;
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T join(Future<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // an exception thrown on another thread may be reported as a copy that is caused by the original
+            if (cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) {
+                cause = cause.getCause();
+            }
+            switch (cause) {
+                case RuntimeException runtimeException -> throw runtimeException;
+                case Error error -> throw error;
+                default -> throw new IllegalStateException(cause);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,12 +4,30 @@ public sealed interface Span {
     Position start();
     Position end();
 
+    /// {@return the offset of the first character of this span in the source}
+    int startOffset();
+
+    /// {@return the offset after the last character of this span in the source}
+    int endOffset();
+
     Span merge(Span later);
 
-    record SimpleSpan(Position start, Position end) implements Span {
+    /// A span that only consists of offsets.
+    /// Lines and columns are resolved on demand, as they are only needed for diagnostics.
+    record SourceSpan(LineIndex lines, int startOffset, int endOffset) implements Span {
+        @Override
+        public Position start() {
+            return lines().position(startOffset());
+        }
+
+        @Override
+        public Position end() {
+            return lines().position(endOffset());
+        }
+
         @Override
         public Span merge(Span later) {
-            return new SimpleSpan(start(), later.end());
+            return new SourceSpan(lines(), startOffset(), later.endOffset());
         }
 
         @Override
@@ -28,17 +28,29 @@ public class CodeGenerator {
     public String generateCode(List<IrGraph> program) {
         StringBuilder builder = new StringBuilder();
         for (IrGraph graph : program) {
-            AasmRegisterAllocator allocator = new AasmRegisterAllocator();
-            Map<Node, Register> registers = allocator.allocateRegisters(graph);
-            builder.append("function ")
-                .append(graph.name())
-                .append(" {\n");
-            generateForGraph(graph, builder, registers);
-            builder.append("}");
+            generateCode(graph, builder);
         }
         return builder.toString();
     }
 
+    /// {@return the code of a single function}
+    /// The code of a program is the concatenation of the code of its functions.
+    public String generateCode(IrGraph graph) {
+        StringBuilder builder = new StringBuilder();
+        generateCode(graph, builder);
+        return builder.toString();
+    }
+
+    private void generateCode(IrGraph graph, StringBuilder builder) {
+        AasmRegisterAllocator allocator = new AasmRegisterAllocator();
+        Map<Node, Register> registers = allocator.allocateRegisters(graph);
+        builder.append("function ")
+            .append(graph.name())
+            .append(" {\n");
+        generateForGraph(graph, builder, registers);
+        builder.append("}");
+    }
+
     private void generateForGraph(IrGraph graph, StringBuilder builder, Map<Node, Register> registers) {
         Set<Node> visited = new HashSet<>();
         scan(graph.endBlock(), visited, builder, registers);
@@ -14,21 +14,29 @@ import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 import edu.kit.kastel.vads.compiler.ir.node.SubNode;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 class GraphConstructor {
 
     private final Optimizer optimizer;
     private final IrGraph graph;
-    private final Map<Name, Map<Block, Node>> currentDef = new HashMap<>();
-    private final Map<Block, Map<Name, Phi>> incompletePhis = new HashMap<>();
-    private final Map<Block, Node> currentSideEffect = new HashMap<>();
-    private final Map<Block, Phi> incompleteSideEffectPhis = new HashMap<>();
-    private final Set<Block> sealedBlocks = new HashSet<>();
+    private final VariableDefinitions currentDef = new VariableDefinitions();
+    // the tables below are indexed by Block#index
+    private final List<@Nullable List<IncompletePhi>> incompletePhis = new ArrayList<>();
+    private @Nullable Node[] currentSideEffect = new Node[4];
+    private @Nullable Phi[] incompleteSideEffectPhis = new Phi[4];
+    private final BitSet sealedBlocks = new BitSet();
+    // removed trivial phis -> the value that replaced them, as the definitions above may still refer to them
+    private final Map<Phi, Node> replacedPhis = new IdentityHashMap<>();
     private Block currentBlock;
 
     public GraphConstructor(Optimizer optimizer, String name) {
@@ -86,8 +94,12 @@ class GraphConstructor {
     }
 
     public Phi newPhi() {
+        return newPhi(currentBlock());
+    }
+
+    private Phi newPhi(Block block) {
         // don't transform phi directly, it is not ready yet
-        return new Phi(currentBlock());
+        return new Phi(block);
     }
 
     public IrGraph graph() {
@@ -95,54 +107,158 @@ class GraphConstructor {
     }
 
     void writeVariable(Name variable, Block block, Node value) {
-        this.currentDef.computeIfAbsent(variable, _ -> new HashMap<>()).put(block, value);
+        this.currentDef.put(block.index(), variable.id(), value);
     }
 
     Node readVariable(Name variable, Block block) {
-        Node node = this.currentDef.getOrDefault(variable, Map.of()).get(block);
+        Node node = this.currentDef.get(block.index(), variable.id());
         if (node != null) {
-            return node;
+            return replacement(node);
         }
         return readVariableRecursive(variable, block);
     }
 
-
+    /// Looks up the definition along the chain of sealed blocks with a single predecessor, without recursing.
+    /// The definition found is then written to all blocks of the chain.
     private Node readVariableRecursive(Name variable, Block block) {
+        Block current = block;
         Node val;
-        if (!this.sealedBlocks.contains(block)) {
-            val = newPhi();
-            this.incompletePhis.computeIfAbsent(block, _ -> new HashMap<>()).put(variable, (Phi) val);
-        } else if (block.predecessors().size() == 1) {
-            val = readVariable(variable, block.predecessors().getFirst().block());
-        } else {
-            val = newPhi();
-            writeVariable(variable, block, val);
-            val = addPhiOperands(variable, (Phi) val);
+        while (true) {
+            if (!isSealed(current)) {
+                Phi phi = newPhi(current);
+                addIncompletePhi(current, variable, phi);
+                val = phi;
+                break;
+            }
+            if (current.predecessorCount() != 1) {
+                Phi phi = newPhi(current);
+                writeVariable(variable, current, phi);
+                val = addPhiOperands(variable, phi);
+                break;
+            }
+            current = current.predecessor(0).block();
+            Node node = this.currentDef.get(current.index(), variable.id());
+            if (node != null) {
+                val = replacement(node);
+                break;
+            }
+        }
+        for (Block chain = block; ; chain = chain.predecessor(0).block()) {
+            writeVariable(variable, chain, val);
+            if (chain == current) {
+                return val;
+            }
         }
-        writeVariable(variable, block, val);
-        return val;
     }
 
     Node addPhiOperands(Name variable, Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readVariable(variable, pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readVariable(variable, block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
 
+    /// Removes the phi if it only merges a single value, besides itself, and replaces all its uses by that value.
+    /// Phis that used it may become trivial in turn, they are removed as well.
+    /// @return the value that replaces the phi, or the phi itself if it is not trivial
     Node tryRemoveTrivialPhi(Phi phi) {
-        // TODO: the paper shows how to remove trivial phis.
-        // as this is not a problem in Lab 1 and it is just
-        // a simplification, we recommend to implement this
-        // part yourself.
-        return phi;
+        Deque<Phi> worklist = new ArrayDeque<>();
+        worklist.push(phi);
+        while (!worklist.isEmpty()) {
+            Phi candidate = worklist.pop();
+            if (this.replacedPhis.containsKey(candidate)) {
+                continue;
+            }
+            Node same = trivialValue(candidate);
+            if (same == null) {
+                continue;
+            }
+            for (Node user : this.graph.successors(candidate)) {
+                if (user == candidate) {
+                    continue;
+                }
+                // users are rerouted in place, so value numbering does not see their new inputs
+                for (int i = 0; i < user.predecessorCount(); i++) {
+                    if (user.predecessor(i) == candidate) {
+                        user.setPredecessor(i, same);
+                    }
+                }
+                if (user instanceof Phi userPhi) {
+                    worklist.push(userPhi);
+                }
+            }
+            candidate.clearPredecessors();
+            this.replacedPhis.put(candidate, same);
+        }
+        return replacement(phi);
+    }
+
+    /// {@return the only value the phi merges besides itself, or `null` if it merges several or none}
+    private static @Nullable Node trivialValue(Phi phi) {
+        @Nullable Node same = null;
+        for (Node operand : phi.predecessors()) {
+            if (operand == same || operand == phi) {
+                continue;
+            }
+            if (same != null) {
+                return null;
+            }
+            same = operand;
+        }
+        // a phi without other operands is unreachable or reads an undefined value, it is kept as is
+        return same;
+    }
+
+    /// {@return the node that replaces the given one, which differs if it is a removed phi}
+    private Node replacement(Node node) {
+        Node current = node;
+        while (current instanceof Phi phi) {
+            Node replaced = this.replacedPhis.get(phi);
+            if (replaced == null) {
+                break;
+            }
+            current = replaced;
+        }
+        return current;
     }
 
     void sealBlock(Block block) {
-        for (Map.Entry<Name, Phi> entry : this.incompletePhis.getOrDefault(block, Map.of()).entrySet()) {
-            addPhiOperands(entry.getKey(), entry.getValue());
+        int index = block.index();
+        if (index < this.incompletePhis.size()) {
+            List<IncompletePhi> phis = this.incompletePhis.get(index);
+            if (phis != null) {
+                for (IncompletePhi incomplete : phis) {
+                    addPhiOperands(incomplete.variable(), incomplete.phi());
+                }
+                this.incompletePhis.set(index, null);
+            }
         }
-        this.sealedBlocks.add(block);
+        if (index < this.incompleteSideEffectPhis.length) {
+            Phi phi = this.incompleteSideEffectPhis[index];
+            if (phi != null) {
+                addPhiOperands(phi);
+                this.incompleteSideEffectPhis[index] = null;
+            }
+        }
+        this.sealedBlocks.set(index);
+    }
+
+    private boolean isSealed(Block block) {
+        return this.sealedBlocks.get(block.index());
+    }
+
+    private void addIncompletePhi(Block block, Name variable, Phi phi) {
+        int index = block.index();
+        while (this.incompletePhis.size() <= index) {
+            this.incompletePhis.add(null);
+        }
+        List<IncompletePhi> phis = this.incompletePhis.get(index);
+        if (phis == null) {
+            phis = new ArrayList<>();
+            this.incompletePhis.set(index, phis);
+        }
+        phis.add(new IncompletePhi(variable, phi));
     }
 
     public void writeCurrentSideEffect(Node node) {
@@ -150,7 +266,11 @@ class GraphConstructor {
     }
 
     private void writeSideEffect(Block block, Node node) {
-        this.currentSideEffect.put(block, node);
+        int index = block.index();
+        if (index >= this.currentSideEffect.length) {
+            this.currentSideEffect = Arrays.copyOf(this.currentSideEffect, Math.max(index + 1, index * 2));
+        }
+        this.currentSideEffect[index] = node;
     }
 
     public Node readCurrentSideEffect() {
@@ -158,35 +278,62 @@ class GraphConstructor {
     }
 
     private Node readSideEffect(Block block) {
-        Node node = this.currentSideEffect.get(block);
+        int index = block.index();
+        Node node = index < this.currentSideEffect.length ? this.currentSideEffect[index] : null;
         if (node != null) {
-            return node;
+            return replacement(node);
         }
         return readSideEffectRecursive(block);
     }
 
+    /// Like [#readVariableRecursive(Name, Block)], for the side effect edges.
     private Node readSideEffectRecursive(Block block) {
+        Block current = block;
         Node val;
-        if (!this.sealedBlocks.contains(block)) {
-            val = newPhi();
-            Phi old = this.incompleteSideEffectPhis.put(block, (Phi) val);
-            assert old == null : "double readSideEffectRecursive for " + block;
-        } else if (block.predecessors().size() == 1) {
-            val = readSideEffect(block.predecessors().getFirst().block());
-        } else {
-            val = newPhi();
-            writeSideEffect(block, val);
-            val = addPhiOperands((Phi) val);
+        while (true) {
+            if (!isSealed(current)) {
+                Phi phi = newPhi(current);
+                int index = current.index();
+                if (index >= this.incompleteSideEffectPhis.length) {
+                    this.incompleteSideEffectPhis = Arrays.copyOf(
+                        this.incompleteSideEffectPhis, Math.max(index + 1, index * 2)
+                    );
+                }
+                assert this.incompleteSideEffectPhis[index] == null : "double readSideEffectRecursive for " + current;
+                this.incompleteSideEffectPhis[index] = phi;
+                val = phi;
+                break;
+            }
+            if (current.predecessorCount() != 1) {
+                Phi phi = newPhi(current);
+                writeSideEffect(current, phi);
+                val = addPhiOperands(phi);
+                break;
+            }
+            current = current.predecessor(0).block();
+            int index = current.index();
+            Node node = index < this.currentSideEffect.length ? this.currentSideEffect[index] : null;
+            if (node != null) {
+                val = replacement(node);
+                break;
+            }
+        }
+        for (Block chain = block; ; chain = chain.predecessor(0).block()) {
+            writeSideEffect(chain, val);
+            if (chain == current) {
+                return val;
+            }
         }
-        writeSideEffect(block, val);
-        return val;
     }
 
     Node addPhiOperands(Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readSideEffect(pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readSideEffect(block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
 
+    private record IncompletePhi(Name variable, Phi phi) {
+    }
 }
@@ -2,18 +2,24 @@ package edu.kit.kastel.vads.compiler.ir;
 
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
 
+import java.util.Collections;
 import java.util.IdentityHashMap;
-import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.SequencedSet;
 import java.util.Set;
 
 public class IrGraph {
-    private final Map<Node, SequencedSet<Node>> successors = new IdentityHashMap<>();
+    // by identity, as nodes that are equal for value numbering may still coexist until they are merged
+    private final Map<Node, Set<Node>> successors = new IdentityHashMap<>();
     private final Block startBlock;
     private final Block endBlock;
     private final String name;
+    private int blockCount;
+    // the nodes created since dead nodes were last removed, and the nodes that were live then
+    private int nodeCount;
+    private final DebugInfoHelper debugInfoHelper = new DebugInfoHelper();
 
     public IrGraph(String name) {
         this.name = name;
@@ -21,21 +27,68 @@ public class IrGraph {
         this.endBlock = new Block(this);
     }
 
+    /// Counts a new node of this graph, see [#removeDeadNodes(Set)].
+    public void registerNode() {
+        this.nodeCount++;
+    }
+
     public void registerSuccessor(Node node, Node successor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).add(successor);
+        this.successors.computeIfAbsent(node, _ -> newIdentitySet()).add(successor);
     }
 
     public void removeSuccessor(Node node, Node oldSuccessor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).remove(oldSuccessor);
+        this.successors.computeIfAbsent(node, _ -> newIdentitySet()).remove(oldSuccessor);
     }
 
     /// {@return the set of nodes that have the given node as one of their inputs}
     public Set<Node> successors(Node node) {
-        SequencedSet<Node> successors = this.successors.get(node);
+        Set<Node> successors = this.successors.get(node);
         if (successors == null) {
             return Set.of();
         }
-        return Set.copyOf(successors);
+        Set<Node> copy = newIdentitySet();
+        copy.addAll(successors);
+        return Collections.unmodifiableSet(copy);
+    }
+
+    /// Forgets all nodes that are not live, so they are no successors of any node anymore.
+    /// @param live the nodes of this graph that are still needed
+    /// @return the number of nodes that are not live, out of those that were created since the last call
+    ///     and those that were live at it
+    public int removeDeadNodes(Set<Node> live) {
+        Iterator<Map.Entry<Node, Set<Node>>> entries = this.successors.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Node, Set<Node>> entry = entries.next();
+            if (!live.contains(entry.getKey())) {
+                entries.remove();
+            } else {
+                entry.getValue().removeIf(user -> !live.contains(user));
+            }
+        }
+        // a node without inputs and users is never a key or user, so the count comes from all nodes
+        int removed = this.nodeCount - live.size();
+        this.nodeCount = live.size();
+        return removed;
+    }
+
+    private static Set<Node> newIdentitySet() {
+        // most nodes have only few users
+        return Collections.newSetFromMap(new IdentityHashMap<>(2));
+    }
+
+    /// {@return the index for a new block, see [Block#index()]}
+    public int newBlockIndex() {
+        return this.blockCount++;
+    }
+
+    /// {@return the number of blocks created for this graph}
+    public int blockCount() {
+        return this.blockCount;
+    }
+
+    /// {@return the debug info that nodes of this graph get when they are created}
+    public DebugInfoHelper debugInfoHelper() {
+        return this.debugInfoHelper;
     }
 
     public Block startBlock() {
@@ -1,5 +1,6 @@
 package edu.kit.kastel.vads.compiler.ir;
 
+import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.DivNode;
 import edu.kit.kastel.vads.compiler.ir.node.ModNode;
@@ -7,10 +8,14 @@ import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+import edu.kit.kastel.vads.compiler.parser.ast.AstKind;
 import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
 import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
 import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
@@ -24,11 +29,11 @@ import edu.kit.kastel.vads.compiler.parser.ast.Tree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Optional;
-import java.util.function.BinaryOperator;
 
 /// SSA translation as described in
 /// [`Simple and Efficient Construction of Static Single Assignment Form`](https://compilers.cs.uni-saarland.de/papers/bbhlmz13cc.pdf).
@@ -38,20 +43,101 @@ import java.util.function.BinaryOperator;
 ///
 /// We recommend to read the paper to better understand the mechanics implemented here.
 public class SsaTranslation {
-    private final FunctionTree function;
+    private final @Nullable FunctionTree function;
+    private final @Nullable AstArena arena;
     private final GraphConstructor constructor;
 
     public SsaTranslation(FunctionTree function, Optimizer optimizer) {
         this.function = function;
+        this.arena = null;
         this.constructor = new GraphConstructor(optimizer, function.name().name().asString());
     }
 
+    public SsaTranslation(AstArena function, Optimizer optimizer) {
+        this.function = null;
+        this.arena = function;
+        int name = function.previousSibling(function.root() - 1);
+        this.constructor = new GraphConstructor(optimizer, function.name(name).asString());
+    }
+
     public IrGraph translate() {
-        var visitor = new SsaTranslationVisitor();
-        this.function.accept(visitor, this);
+        if (this.arena != null) {
+            translate(this.arena);
+        } else {
+            assert this.function != null;
+            this.function.accept(new SsaTranslationVisitor(this.constructor.graph().debugInfoHelper()), this);
+        }
         return this.constructor.graph();
     }
 
+    /// Translates an arena in a single scan, as its nodes are already in evaluation order.
+    /// The values of expressions are kept on a stack until their consumer is reached.
+    private void translate(AstArena arena) {
+        int root = arena.root();
+        setDebugInfo(arena, root);
+        Node start = this.constructor.newStart();
+        this.constructor.writeCurrentSideEffect(this.constructor.newSideEffectProj(start));
+        Deque<Node> values = new ArrayDeque<>();
+        int node = 0;
+        while (node < root) {
+            switch (arena.kind(node)) {
+                case AstKind.LITERAL -> {
+                    setDebugInfo(arena, node);
+                    values.push(this.constructor.newConstInt(arena.literalValue(node)));
+                }
+                case AstKind.IDENT_EXPRESSION -> {
+                    setDebugInfo(arena, node);
+                    values.push(readVariable(arena.name(node - 1), currentBlock()));
+                }
+                case AstKind.BINARY_OPERATION -> {
+                    setDebugInfo(arena, node);
+                    Node rhs = values.pop();
+                    Node lhs = values.pop();
+                    values.push(binaryOperation(arena.operatorType(node), lhs, rhs));
+                }
+                case AstKind.NEGATE -> {
+                    setDebugInfo(arena, node);
+                    values.push(this.constructor.newSub(this.constructor.newConstInt(0), values.pop()));
+                }
+                case AstKind.DECLARATION -> {
+                    int initializer = arena.initializer(node);
+                    if (initializer != -1) {
+                        writeVariable(arena.name(arena.previousSibling(initializer)), currentBlock(), values.pop());
+                    }
+                }
+                case AstKind.ASSIGNMENT -> {
+                    setDebugInfo(arena, node);
+                    Name name = arena.name(arena.previousSibling(node - 1) - 1);
+                    Node rhs = values.pop();
+                    @Nullable OperatorType desugared = desugar(arena.operatorType(node));
+                    if (desugared != null) {
+                        rhs = binaryOperation(desugared, readVariable(name, currentBlock()), rhs);
+                    }
+                    writeVariable(name, currentBlock(), rhs);
+                }
+                case AstKind.RETURN -> {
+                    setDebugInfo(arena, node);
+                    Node ret = this.constructor.newReturn(values.pop());
+                    this.constructor.graph().endBlock().addPredecessor(ret);
+                    // skip everything after a return in a block, the next node starting before it is the block
+                    int returnNode = node;
+                    do {
+                        node++;
+                    } while (arena.start(node) > returnNode);
+                    continue;
+                }
+                default -> {
+                    // names, types, lvalues and blocks are handled by their parents
+                }
+            }
+            node++;
+        }
+    }
+
+    private void setDebugInfo(AstArena arena, int node) {
+        this.constructor.graph().debugInfoHelper().setDebugInfo(new DebugInfo.SourceInfo(arena.span(node)));
+    }
+
     private void writeVariable(Name variable, Block block, Node value) {
         this.constructor.writeVariable(variable, block, value);
     }
@@ -64,41 +150,76 @@ public class SsaTranslation {
         return this.constructor.currentBlock();
     }
 
+    /// {@return the binary operator of a compound assignment, or `null` for a plain assignment}
+    static @Nullable OperatorType desugar(OperatorType assignment) {
+        return switch (assignment) {
+            case ASSIGN_MINUS -> OperatorType.MINUS;
+            case ASSIGN_PLUS -> OperatorType.PLUS;
+            case ASSIGN_MUL -> OperatorType.MUL;
+            case ASSIGN_DIV -> OperatorType.DIV;
+            case ASSIGN_MOD -> OperatorType.MOD;
+            case ASSIGN -> null;
+            default -> throw new IllegalArgumentException("not an assignment operator " + assignment);
+        };
+    }
+
+    private Node binaryOperation(OperatorType type, Node lhs, Node rhs) {
+        return binaryOperation(this.constructor, type, lhs, rhs);
+    }
+
+    static Node binaryOperation(GraphConstructor constructor, OperatorType type, Node lhs, Node rhs) {
+        return switch (type) {
+            case MINUS -> constructor.newSub(lhs, rhs);
+            case PLUS -> constructor.newAdd(lhs, rhs);
+            case MUL -> constructor.newMul(lhs, rhs);
+            case DIV -> projResultDivMod(constructor, constructor.newDiv(lhs, rhs));
+            case MOD -> projResultDivMod(constructor, constructor.newMod(lhs, rhs));
+            default -> throw new IllegalArgumentException("not a binary expression operator " + type);
+        };
+    }
+
+    private static Node projResultDivMod(GraphConstructor constructor, Node divMod) {
+        // make sure we actually have a div or a mod, as optimizations could
+        // have changed it to something else already
+        if (!(divMod instanceof DivNode || divMod instanceof ModNode)) {
+            return divMod;
+        }
+        Node projSideEffect = constructor.newSideEffectProj(divMod);
+        constructor.writeCurrentSideEffect(projSideEffect);
+        return constructor.newResultProj(divMod);
+    }
+
     private static class SsaTranslationVisitor implements Visitor<SsaTranslation, Optional<Node>> {
 
         @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
         private static final Optional<Node> NOT_AN_EXPRESSION = Optional.empty();
 
+        private final DebugInfoHelper debugInfo;
         private final Deque<DebugInfo> debugStack = new ArrayDeque<>();
 
+        SsaTranslationVisitor(DebugInfoHelper debugInfo) {
+            this.debugInfo = debugInfo;
+        }
+
         private void pushSpan(Tree tree) {
-            this.debugStack.push(DebugInfoHelper.getDebugInfo());
-            DebugInfoHelper.setDebugInfo(new DebugInfo.SourceInfo(tree.span()));
+            this.debugStack.push(this.debugInfo.getDebugInfo());
+            this.debugInfo.setDebugInfo(new DebugInfo.SourceInfo(tree.span()));
         }
 
         private void popSpan() {
-            DebugInfoHelper.setDebugInfo(this.debugStack.pop());
+            this.debugInfo.setDebugInfo(this.debugStack.pop());
         }
 
         @Override
         public Optional<Node> visit(AssignmentTree assignmentTree, SsaTranslation data) {
             pushSpan(assignmentTree);
-            BinaryOperator<Node> desugar = switch (assignmentTree.operator().type()) {
-                case ASSIGN_MINUS -> data.constructor::newSub;
-                case ASSIGN_PLUS -> data.constructor::newAdd;
-                case ASSIGN_MUL -> data.constructor::newMul;
-                case ASSIGN_DIV -> (lhs, rhs) -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
-                case ASSIGN_MOD -> (lhs, rhs) -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
-                case ASSIGN -> null;
-                default ->
-                    throw new IllegalArgumentException("not an assignment operator " + assignmentTree.operator());
-            };
+            @Nullable OperatorType desugared = desugar(assignmentTree.operator().type());
 
             switch (assignmentTree.lValue()) {
                 case LValueIdentTree(var name) -> {
-                    Node rhs = assignmentTree.expression().accept(this, data).orElseThrow();
-                    if (desugar != null) {
-                        rhs = desugar.apply(data.readVariable(name.name(), data.currentBlock()), rhs);
+                    Node rhs = translateExpression(assignmentTree.expression(), data);
+                    if (desugared != null) {
+                        rhs = data.binaryOperation(desugared, data.readVariable(name.name(), data.currentBlock()), rhs);
                     }
                     data.writeVariable(name.name(), data.currentBlock(), rhs);
                 }
@@ -109,20 +230,7 @@ public class SsaTranslation {
 
         @Override
         public Optional<Node> visit(BinaryOperationTree binaryOperationTree, SsaTranslation data) {
-            pushSpan(binaryOperationTree);
-            Node lhs = binaryOperationTree.lhs().accept(this, data).orElseThrow();
-            Node rhs = binaryOperationTree.rhs().accept(this, data).orElseThrow();
-            Node res = switch (binaryOperationTree.operatorType()) {
-                case MINUS -> data.constructor.newSub(lhs, rhs);
-                case PLUS -> data.constructor.newAdd(lhs, rhs);
-                case MUL -> data.constructor.newMul(lhs, rhs);
-                case DIV -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
-                case MOD -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
-                default ->
-                    throw new IllegalArgumentException("not a binary expression operator " + binaryOperationTree.operatorType());
-            };
-            popSpan();
-            return Optional.of(res);
+            return Optional.of(translateExpression(binaryOperationTree, data));
         }
 
         @Override
@@ -143,7 +251,7 @@ public class SsaTranslation {
         public Optional<Node> visit(DeclarationTree declarationTree, SsaTranslation data) {
             pushSpan(declarationTree);
             if (declarationTree.initializer() != null) {
-                Node rhs = declarationTree.initializer().accept(this, data).orElseThrow();
+                Node rhs = translateExpression(declarationTree.initializer(), data);
                 data.writeVariable(declarationTree.name().name(), data.currentBlock(), rhs);
             }
             popSpan();
@@ -162,18 +270,12 @@ public class SsaTranslation {
 
         @Override
         public Optional<Node> visit(IdentExpressionTree identExpressionTree, SsaTranslation data) {
-            pushSpan(identExpressionTree);
-            Node value = data.readVariable(identExpressionTree.name().name(), data.currentBlock());
-            popSpan();
-            return Optional.of(value);
+            return Optional.of(translateExpression(identExpressionTree, data));
         }
 
         @Override
         public Optional<Node> visit(LiteralTree literalTree, SsaTranslation data) {
-            pushSpan(literalTree);
-            Node node = data.constructor.newConstInt((int) literalTree.parseValue().orElseThrow());
-            popSpan();
-            return Optional.of(node);
+            return Optional.of(translateExpression(literalTree, data));
         }
 
         @Override
@@ -188,11 +290,7 @@ public class SsaTranslation {
 
         @Override
         public Optional<Node> visit(NegateTree negateTree, SsaTranslation data) {
-            pushSpan(negateTree);
-            Node node = negateTree.expression().accept(this, data).orElseThrow();
-            Node res = data.constructor.newSub(data.constructor.newConstInt(0), node);
-            popSpan();
-            return Optional.of(res);
+            return Optional.of(translateExpression(negateTree, data));
         }
 
         @Override
@@ -203,7 +301,7 @@ public class SsaTranslation {
         @Override
         public Optional<Node> visit(ReturnTree returnTree, SsaTranslation data) {
             pushSpan(returnTree);
-            Node node = returnTree.expression().accept(this, data).orElseThrow();
+            Node node = translateExpression(returnTree.expression(), data);
             Node ret = data.constructor.newReturn(node);
             data.constructor.graph().endBlock().addPredecessor(ret);
             popSpan();
@@ -215,15 +313,61 @@ public class SsaTranslation {
             throw new UnsupportedOperationException();
         }
 
-        private Node projResultDivMod(SsaTranslation data, Node divMod) {
-            // make sure we actually have a div or a mod, as optimizations could
-            // have changed it to something else already
-            if (!(divMod instanceof DivNode || divMod instanceof ModNode)) {
-                return divMod;
+        /// Translates an expression in postorder, keeping pending operations and values on explicit stacks,
+        /// so deeply nested expressions do not overflow the call stack.
+        /// The span of each operation is merged from the spans of its operands instead of walking the tree again.
+        private Node translateExpression(ExpressionTree expression, SsaTranslation data) {
+            DebugInfo outer = this.debugInfo.getDebugInfo();
+            Deque<Step> work = new ArrayDeque<>();
+            Deque<Node> values = new ArrayDeque<>();
+            Deque<Span> spans = new ArrayDeque<>();
+            work.push(new Step(expression, false));
+            while (!work.isEmpty()) {
+                Step step = work.pop();
+                switch (step.expression()) {
+                    case BinaryOperationTree binary when !step.operandsDone() -> {
+                        work.push(new Step(binary, true));
+                        work.push(new Step(binary.rhs(), false));
+                        work.push(new Step(binary.lhs(), false));
+                    }
+                    case BinaryOperationTree binary -> {
+                        Node rhs = values.pop();
+                        Node lhs = values.pop();
+                        Span rhsSpan = spans.pop();
+                        Span span = spans.pop().merge(rhsSpan);
+                        this.debugInfo.setDebugInfo(new DebugInfo.SourceInfo(span));
+                        values.push(data.binaryOperation(binary.operatorType(), lhs, rhs));
+                        spans.push(span);
+                    }
+                    case NegateTree negate when !step.operandsDone() -> {
+                        work.push(new Step(negate, true));
+                        work.push(new Step(negate.expression(), false));
+                    }
+                    case NegateTree negate -> {
+                        Span span = negate.minusPos().merge(spans.pop());
+                        this.debugInfo.setDebugInfo(new DebugInfo.SourceInfo(span));
+                        values.push(data.constructor.newSub(data.constructor.newConstInt(0), values.pop()));
+                        spans.push(span);
+                    }
+                    case IdentExpressionTree identExpression -> {
+                        Span span = identExpression.span();
+                        this.debugInfo.setDebugInfo(new DebugInfo.SourceInfo(span));
+                        values.push(data.readVariable(identExpression.name().name(), data.currentBlock()));
+                        spans.push(span);
+                    }
+                    case LiteralTree literal -> {
+                        this.debugInfo.setDebugInfo(new DebugInfo.SourceInfo(literal.span()));
+                        values.push(data.constructor.newConstInt(literal.intValue()));
+                        spans.push(literal.span());
+                    }
+                }
             }
-            Node projSideEffect = data.constructor.newSideEffectProj(divMod);
-            data.constructor.writeCurrentSideEffect(projSideEffect);
-            return data.constructor.newResultProj(divMod);
+            this.debugInfo.setDebugInfo(outer);
+            return values.pop();
+        }
+
+        /// An expression to translate, either before or after its operands were translated.
+        private record Step(ExpressionTree expression, boolean operandsDone) {
         }
     }
 
@@ -0,0 +1,182 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
+import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.SyntaxActions;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.semantic.InlineAnalysis;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/// Translates functions into SSA form while they are parsed, without building a tree,
+/// see [Parser#parseFunctions(SyntaxActions)].
+/// The semantic checks run inline through an [InlineAnalysis], which throws on the first error.
+///
+/// Expressions are represented by their IR nodes.
+/// The spans of the expressions that are not consumed yet are kept on a stack,
+/// so the nodes get the same debug info as with [SsaTranslation].
+/// Only the start of each function gets the span of the function header, as the body is not parsed yet.
+public final class SyntaxDirectedTranslation implements SyntaxActions<Node, IrGraph> {
+    private final Supplier<Optimizer> optimizers;
+    private final InlineAnalysis analysis = new InlineAnalysis();
+    private @Nullable GraphConstructor constructor;
+    // the value of all expressions after a return, no nodes are created for unreachable code
+    private @Nullable Node unreachable;
+    private @Nullable Span[] spans = new Span[16];
+    private int spanCount;
+
+    /// @param optimizers provides the optimizer of each function
+    public SyntaxDirectedTranslation(Supplier<Optimizer> optimizers) {
+        this.optimizers = optimizers;
+    }
+
+    @Override
+    public void beginFunction(Span returnType, Identifier name) {
+        this.analysis.beginFunction(name);
+        GraphConstructor constructor = new GraphConstructor(this.optimizers.get(), name.value());
+        constructor.graph().debugInfoHelper().setDebugInfo(new DebugInfo.SourceInfo(returnType.merge(name.span())));
+        Node start = constructor.newStart();
+        constructor.writeCurrentSideEffect(constructor.newSideEffectProj(start));
+        this.constructor = constructor;
+        this.unreachable = start;
+    }
+
+    @Override
+    public IrGraph endFunction() {
+        this.analysis.endFunction();
+        IrGraph graph = constructor().graph();
+        this.constructor = null;
+        this.unreachable = null;
+        return graph;
+    }
+
+    @Override
+    public void beginBlock(Span open) {
+        this.analysis.enterBlock();
+    }
+
+    @Override
+    public void endBlock(Span close) {
+        this.analysis.exitBlock();
+    }
+
+    @Override
+    public void declaration(Span type, Identifier name, @Nullable Node initializer) {
+        Name variable = Name.forIdentifier(name);
+        this.analysis.declare(name, initializer != null);
+        if (initializer != null && this.analysis.reachable()) {
+            popSpan();
+            GraphConstructor constructor = constructor();
+            constructor.writeVariable(variable, constructor.currentBlock(), initializer);
+        }
+    }
+
+    @Override
+    public void assignment(Identifier target, Operator operator, Node expression) {
+        Name variable = Name.forIdentifier(target);
+        this.analysis.assign(target, operator.type());
+        if (!this.analysis.reachable()) {
+            return;
+        }
+        setDebugInfo(target.span().merge(popSpan()));
+        GraphConstructor constructor = constructor();
+        Node value = expression;
+        @Nullable OperatorType desugared = SsaTranslation.desugar(operator.type());
+        if (desugared != null) {
+            Node current = constructor.readVariable(variable, constructor.currentBlock());
+            value = SsaTranslation.binaryOperation(constructor, desugared, current, value);
+        }
+        constructor.writeVariable(variable, constructor.currentBlock(), value);
+    }
+
+    @Override
+    public void returnStatement(Span returnPos, Node expression) {
+        if (this.analysis.reachable()) {
+            setDebugInfo(returnPos.merge(popSpan()));
+            GraphConstructor constructor = constructor();
+            Node ret = constructor.newReturn(expression);
+            constructor.graph().endBlock().addPredecessor(ret);
+        }
+        this.analysis.returnFromFunction();
+    }
+
+    @Override
+    public Node identifier(Identifier identifier) {
+        Name variable = Name.forIdentifier(identifier);
+        this.analysis.read(identifier);
+        if (!this.analysis.reachable()) {
+            return unreachable();
+        }
+        pushSpan(identifier.span());
+        GraphConstructor constructor = constructor();
+        return constructor.readVariable(variable, constructor.currentBlock());
+    }
+
+    @Override
+    public Node literal(NumberLiteral literal) {
+        this.analysis.literal(literal);
+        if (!this.analysis.reachable()) {
+            return unreachable();
+        }
+        pushSpan(literal.span());
+        return constructor().newConstInt(literal.intValue());
+    }
+
+    @Override
+    public Node negate(Span minusPos, Node operand) {
+        if (!this.analysis.reachable()) {
+            return unreachable();
+        }
+        pushSpan(minusPos.merge(popSpan()));
+        GraphConstructor constructor = constructor();
+        return constructor.newSub(constructor.newConstInt(0), operand);
+    }
+
+    @Override
+    public Node binaryOperation(Node lhs, Node rhs, OperatorType type) {
+        if (!this.analysis.reachable()) {
+            return unreachable();
+        }
+        Span rhsSpan = popSpan();
+        pushSpan(popSpan().merge(rhsSpan));
+        return SsaTranslation.binaryOperation(constructor(), type, lhs, rhs);
+    }
+
+    /// Pushes the span of an expression and makes it the debug info of the nodes created for it.
+    private void pushSpan(Span span) {
+        if (this.spanCount == this.spans.length) {
+            this.spans = Arrays.copyOf(this.spans, this.spanCount * 2);
+        }
+        this.spans[this.spanCount++] = span;
+        setDebugInfo(span);
+    }
+
+    private Span popSpan() {
+        Span span = this.spans[--this.spanCount];
+        assert span != null;
+        return span;
+    }
+
+    private void setDebugInfo(Span span) {
+        constructor().graph().debugInfoHelper().setDebugInfo(new DebugInfo.SourceInfo(span));
+    }
+
+    private GraphConstructor constructor() {
+        assert this.constructor != null : "no function begun";
+        return this.constructor;
+    }
+
+    private Node unreachable() {
+        assert this.unreachable != null : "no function begun";
+        return this.unreachable;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/// The current definition of each variable in each block, see [GraphConstructor#readVariable].
+///
+/// Most variables are only defined in few blocks, so this is an open-addressing hash table
+/// instead of a matrix. The keys are pairs of [block index][edu.kit.kastel.vads.compiler.ir.node.Block#index()]
+/// and [name id][edu.kit.kastel.vads.compiler.parser.symbol.Name#id()], packed into a `long`.
+/// Collisions are resolved by linear probing, and the table is kept at most half full.
+final class VariableDefinitions {
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private @Nullable Node[] values;
+    private int mask;
+    private int size;
+
+    VariableDefinitions() {
+        this.keys = new long[64];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new Node[64];
+        this.mask = 63;
+    }
+
+    @Nullable Node get(int block, int variable) {
+        long key = key(block, variable);
+        for (int i = slot(key); ; i = (i + 1) & this.mask) {
+            long current = this.keys[i];
+            if (current == key) {
+                return this.values[i];
+            }
+            if (current == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    void put(int block, int variable, Node value) {
+        long key = key(block, variable);
+        int i = slot(key);
+        while (this.keys[i] != EMPTY && this.keys[i] != key) {
+            i = (i + 1) & this.mask;
+        }
+        if (this.keys[i] == EMPTY) {
+            if (2 * (this.size + 1) > this.keys.length) {
+                grow();
+                put(block, variable, value);
+                return;
+            }
+            this.keys[i] = key;
+            this.size++;
+        }
+        this.values[i] = value;
+    }
+
+    private void grow() {
+        long[] oldKeys = this.keys;
+        @Nullable Node[] oldValues = this.values;
+        this.keys = new long[oldKeys.length * 2];
+        Arrays.fill(this.keys, EMPTY);
+        this.values = new Node[oldKeys.length * 2];
+        this.mask = this.keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key != EMPTY) {
+                int i = slot(key);
+                while (this.keys[i] != EMPTY) {
+                    i = (i + 1) & this.mask;
+                }
+                this.keys[i] = key;
+                this.values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        // spread both halves over the low bits, as block and variable are small and dense
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & this.mask;
+    }
+
+    private static long key(int block, int variable) {
+        return (long) block << 32 | variable;
+    }
+}
@@ -1,5 +1,7 @@
 package edu.kit.kastel.vads.compiler.ir.node;
 
+/// Operations are equal if they compute the same operation on the same operands in the same block,
+/// so value numbering by [Object#equals(Object)] never merges nodes of different blocks.
 public sealed abstract class BinaryOperationNode extends Node permits AddNode, DivNode, ModNode, MulNode, SubNode {
     public static final int LEFT = 0;
     public static final int RIGHT = 1;
@@ -23,7 +25,7 @@ public sealed abstract class BinaryOperationNode extends Node permits AddNode, D
         if (!(bObj instanceof BinaryOperationNode b)) {
             return false;
         }
-        if (a.getClass() != b.getClass()) {
+        if (a.getClass() != b.getClass() || a.block() != b.block()) {
             return false;
         }
         if (a.predecessor(LEFT) == b.predecessor(LEFT) && a.predecessor(RIGHT) == b.predecessor(RIGHT)) {
@@ -39,12 +41,14 @@ public sealed abstract class BinaryOperationNode extends Node permits AddNode, D
             return false;
         }
         return obj.getClass() == this.getClass()
+            && this.block() == binOp.block()
             && this.predecessor(LEFT) == binOp.predecessor(LEFT)
             && this.predecessor(RIGHT) == binOp.predecessor(RIGHT);
     }
 
     @Override
     public int hashCode() {
-        return (predecessorHash(this, LEFT) * 31 + predecessorHash(this, RIGHT)) ^ this.getClass().hashCode();
+        int h = (predecessorHash(this, LEFT) * 31 + predecessorHash(this, RIGHT)) ^ this.getClass().hashCode();
+        return h * 31 + this.block().hashCode();
     }
 }
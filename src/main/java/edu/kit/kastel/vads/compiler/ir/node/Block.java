@@ -3,9 +3,16 @@ package edu.kit.kastel.vads.compiler.ir.node;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 
 public final class Block extends Node {
+    private final int index;
 
     public Block(IrGraph graph) {
         super(graph);
+        this.index = graph.newBlockIndex();
+    }
+
+    /// {@return the index of this block in its graph, blocks are numbered densely from `0` in creation order}
+    public int index() {
+        return this.index;
     }
 
 }
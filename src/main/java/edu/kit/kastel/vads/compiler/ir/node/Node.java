@@ -2,7 +2,6 @@ package edu.kit.kastel.vads.compiler.ir.node;
 
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
-import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,23 +9,25 @@ import java.util.List;
 /// The base class for all nodes.
 public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNode, Phi, ProjNode, ReturnNode, StartNode {
     private final IrGraph graph;
-    private final Block block;
+    private Block block;
     private final List<Node> predecessors = new ArrayList<>();
     private final DebugInfo debugInfo;
 
     protected Node(Block block, Node... predecessors) {
         this.graph = block.graph();
+        this.graph.registerNode();
         this.block = block;
         this.predecessors.addAll(List.of(predecessors));
         for (Node predecessor : predecessors) {
             graph.registerSuccessor(predecessor, this);
         }
-        this.debugInfo = DebugInfoHelper.getDebugInfo();
+        this.debugInfo = this.graph.debugInfoHelper().getDebugInfo();
     }
 
     protected Node(IrGraph graph) {
         assert this.getClass() == Block.class : "must be used by Block only";
         this.graph = graph;
+        graph.registerNode();
         this.block = (Block) this;
         this.debugInfo = DebugInfo.NoInfo.INSTANCE;
     }
@@ -39,6 +40,14 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         return this.block;
     }
 
+    /// Moves this node into another block of the same graph, for passes that place nodes.
+    /// Value numbering tables must not contain the node meanwhile, as its hash code may depend on the block.
+    public final void setBlock(Block block) {
+        assert !(this instanceof Block) : "blocks cannot be moved";
+        assert block.graph() == this.graph : "block of another graph";
+        this.block = block;
+    }
+
     public final List<? extends Node> predecessors() {
         return List.copyOf(this.predecessors);
     }
@@ -54,6 +63,18 @@ public sealed abstract class Node permits BinaryOperationNode, Block, ConstIntNo
         this.graph.registerSuccessor(node, this);
     }
 
+    /// Removes all predecessors, so this node is no successor of them anymore.
+    public final void clearPredecessors() {
+        for (Node predecessor : this.predecessors) {
+            this.graph.removeSuccessor(predecessor, this);
+        }
+        this.predecessors.clear();
+    }
+
+    public final int predecessorCount() {
+        return this.predecessors.size();
+    }
+
     public final Node predecessor(int idx) {
         return this.predecessors.get(idx);
     }
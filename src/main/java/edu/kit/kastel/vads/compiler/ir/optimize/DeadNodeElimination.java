@@ -0,0 +1,48 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/// Removes the nodes the end block does not depend on from the successors of an [IrGraph], by mark and sweep.
+///
+/// Nodes that were replaced during construction or by other passes stay registered as users of their inputs,
+/// so passes that look at the users of a node would otherwise keep visiting them.
+public class DeadNodeElimination implements Pass {
+
+    @Override
+    public String name() {
+        return "dead node elimination";
+    }
+
+    @Override
+    public int run(IrGraph graph) {
+        return graph.removeDeadNodes(liveNodes(graph));
+    }
+
+    /// {@return the nodes the end block depends on, along predecessors and the blocks of the nodes}
+    static Set<Node> liveNodes(IrGraph graph) {
+        Set<Node> live = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Node> worklist = new ArrayList<>();
+        live.add(graph.endBlock());
+        worklist.add(graph.endBlock());
+        while (!worklist.isEmpty()) {
+            Node node = worklist.removeLast();
+            if (live.add(node.block())) {
+                worklist.add(node.block());
+            }
+            for (int i = 0; i < node.predecessorCount(); i++) {
+                Node predecessor = node.predecessor(i);
+                if (live.add(predecessor)) {
+                    worklist.add(predecessor);
+                }
+            }
+        }
+        return live;
+    }
+}
@@ -0,0 +1,175 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// The dominator tree of the blocks of an [IrGraph], computed with the iterative algorithm
+/// of Cooper, Harvey and Kennedy, "A Simple, Fast Dominance Algorithm".
+///
+/// The control flow edges of a block are its predecessors, each in the block it leaves from.
+/// Only blocks that lead to the end block are known, blocks that are not reachable from the start
+/// have no dominator and are not dominated by any block.
+final class DominatorTree {
+    private static final int UNREACHABLE = -1;
+
+    private final @Nullable Block[] blocks;
+    private final List<Block> reversePostorder;
+    // indexed by Block#index, the index of the immediate dominator, or UNREACHABLE
+    private final int[] immediateDominators;
+    private final int[] depths;
+    // the position of each block in postorder, which decreases towards the start
+    private final int[] postorderNumbers;
+
+    DominatorTree(IrGraph graph) {
+        int blockCount = graph.blockCount();
+        this.blocks = new Block[blockCount];
+        this.immediateDominators = new int[blockCount];
+        this.depths = new int[blockCount];
+        this.postorderNumbers = new int[blockCount];
+        Arrays.fill(this.immediateDominators, UNREACHABLE);
+        List<List<Block>> successors = successors(graph);
+        Block[] reversePostorder = reversePostorder(graph.startBlock(), successors);
+        this.reversePostorder = List.of(reversePostorder);
+        int start = graph.startBlock().index();
+        this.immediateDominators[start] = start;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < reversePostorder.length; i++) {
+                Block block = reversePostorder[i];
+                int dominator = UNREACHABLE;
+                for (int j = 0; j < block.predecessorCount(); j++) {
+                    int predecessor = block.predecessor(j).block().index();
+                    if (this.immediateDominators[predecessor] == UNREACHABLE) {
+                        // not processed yet, or not reachable at all
+                        continue;
+                    }
+                    dominator = dominator == UNREACHABLE ? predecessor : intersect(predecessor, dominator);
+                }
+                if (this.immediateDominators[block.index()] != dominator) {
+                    this.immediateDominators[block.index()] = dominator;
+                    changed = true;
+                }
+            }
+        }
+        for (int i = 1; i < reversePostorder.length; i++) {
+            int index = reversePostorder[i].index();
+            this.depths[index] = this.depths[this.immediateDominators[index]] + 1;
+        }
+    }
+
+    /// {@return the blocks reachable from the start block, each after its dominators}
+    List<Block> blocks() {
+        return this.reversePostorder;
+    }
+
+    /// {@return whether the block is reachable from the start block}
+    boolean isReachable(Block block) {
+        return this.immediateDominators[block.index()] != UNREACHABLE;
+    }
+
+    /// {@return the closest block that dominates the given one, or `null` for the start block}
+    /// The block must be reachable.
+    @Nullable Block immediateDominator(Block block) {
+        assert isReachable(block) : block + " is unreachable";
+        int dominator = this.immediateDominators[block.index()];
+        return dominator == block.index() ? null : this.blocks[dominator];
+    }
+
+    /// {@return the number of blocks that strictly dominate the given one}
+    /// The block must be reachable.
+    int depth(Block block) {
+        assert isReachable(block) : block + " is unreachable";
+        return this.depths[block.index()];
+    }
+
+    /// {@return whether every path from the start to `block` passes through `dominator`}
+    /// A block dominates itself.
+    boolean dominates(Block dominator, Block block) {
+        if (!isReachable(dominator) || !isReachable(block)) {
+            return false;
+        }
+        int current = block.index();
+        while (this.depths[current] > this.depths[dominator.index()]) {
+            current = this.immediateDominators[current];
+        }
+        return current == dominator.index();
+    }
+
+    private int intersect(int a, int b) {
+        int finger1 = a;
+        int finger2 = b;
+        while (finger1 != finger2) {
+            while (this.postorderNumbers[finger1] < this.postorderNumbers[finger2]) {
+                finger1 = this.immediateDominators[finger1];
+            }
+            while (this.postorderNumbers[finger2] < this.postorderNumbers[finger1]) {
+                finger2 = this.immediateDominators[finger2];
+            }
+        }
+        return finger1;
+    }
+
+    /// Finds the blocks leading to the end block and records their successors, indexed by [Block#index()].
+    private List<List<Block>> successors(IrGraph graph) {
+        List<List<Block>> successors = new ArrayList<>(this.blocks.length);
+        for (int i = 0; i < this.blocks.length; i++) {
+            successors.add(new ArrayList<>(2));
+        }
+        List<Block> worklist = new ArrayList<>();
+        worklist.add(graph.endBlock());
+        this.blocks[graph.endBlock().index()] = graph.endBlock();
+        this.blocks[graph.startBlock().index()] = graph.startBlock();
+        while (!worklist.isEmpty()) {
+            Block block = worklist.removeLast();
+            for (Node exit : block.predecessors()) {
+                Block predecessor = exit.block();
+                successors.get(predecessor.index()).add(block);
+                if (this.blocks[predecessor.index()] == null) {
+                    this.blocks[predecessor.index()] = predecessor;
+                    worklist.add(predecessor);
+                }
+            }
+        }
+        return successors;
+    }
+
+    /// {@return the blocks reachable from the start in reverse postorder}
+    /// The postorder numbers are recorded as well.
+    private Block[] reversePostorder(Block start, List<List<Block>> successors) {
+        Block[] order = new Block[this.blocks.length];
+        int orderStart = order.length;
+        int postorderNumber = 0;
+        boolean[] visited = new boolean[this.blocks.length];
+        // blocks on the current path, with the index of the next successor to look at
+        Block[] stack = new Block[this.blocks.length];
+        int[] nextSuccessor = new int[this.blocks.length];
+        int depth = 0;
+        stack[0] = start;
+        visited[start.index()] = true;
+        while (depth >= 0) {
+            Block block = stack[depth];
+            List<Block> blockSuccessors = successors.get(block.index());
+            if (nextSuccessor[depth] < blockSuccessors.size()) {
+                Block successor = blockSuccessors.get(nextSuccessor[depth]++);
+                if (!visited[successor.index()]) {
+                    visited[successor.index()] = true;
+                    depth++;
+                    stack[depth] = successor;
+                    nextSuccessor[depth] = 0;
+                }
+            } else {
+                this.postorderNumbers[block.index()] = postorderNumber++;
+                order[--orderStart] = block;
+                depth--;
+            }
+        }
+        return Arrays.copyOfRange(order, orderStart, order.length);
+    }
+}
@@ -0,0 +1,117 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSupport;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/// Merges equal pure nodes of a whole graph, across blocks.
+///
+/// Each pure node is first moved up into the earliest block it can be computed in,
+/// the one of its operands that is dominated by the others, see [DominatorTree].
+/// Equal nodes then have the same operands and therefore end up in the same block,
+/// where [Node#equals(Object)] and [Node#hashCode()] find them like in [LocalValueNumbering].
+/// Only nodes without side effects are moved, which never changes the behavior of the program.
+///
+/// This replaces [LocalValueNumbering], see [PassManager#newOptimizer()],
+/// so it is cheap enough to run on functions of any size.
+public class GlobalValueNumbering implements Pass {
+
+    @Override
+    public String name() {
+        return "global value numbering";
+    }
+
+    @Override
+    public int run(IrGraph graph) {
+        DominatorTree dominators = new DominatorTree(graph);
+        Map<Node, Node> knownNodes = new HashMap<>();
+        int merged = 0;
+        for (Node node : postorder(dominators.blocks())) {
+            if (!isPure(node) || !dominators.isReachable(node.block())) {
+                continue;
+            }
+            Block earliest = earliestBlock(node, graph, dominators);
+            if (earliest == null) {
+                continue;
+            }
+            node.setBlock(earliest);
+            Node known = knownNodes.putIfAbsent(node, node);
+            if (known != null) {
+                NodeSupport.replace(node, known);
+                merged++;
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isPure(Node node) {
+        return node instanceof AddNode || node instanceof SubNode || node instanceof MulNode
+            || node instanceof ConstIntNode;
+    }
+
+    /// {@return the block of the operand that all others dominate, or `null` if an operand is unreachable}
+    private static @Nullable Block earliestBlock(Node node, IrGraph graph, DominatorTree dominators) {
+        Block earliest = graph.startBlock();
+        for (Node operand : node.predecessors()) {
+            Block block = operand.block();
+            if (!dominators.isReachable(block)) {
+                return null;
+            }
+            if (dominators.depth(block) > dominators.depth(earliest)) {
+                earliest = block;
+            }
+        }
+        assert dominators.dominates(earliest, node.block()) : "operand of " + node + " does not dominate it";
+        return earliest;
+    }
+
+    /// {@return all nodes the given blocks depend on, each after its operands}
+    /// The control flow leaving a block is a predecessor of the block it enters, so all blocks are roots.
+    /// Cycles always pass through a phi, so pure nodes come after their operands nevertheless.
+    private static List<Node> postorder(List<Block> blocks) {
+        List<Node> order = new ArrayList<>();
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        // nodes on the current path, with the index of the next operand to look at
+        List<Node> stack = new ArrayList<>();
+        List<Integer> nextOperand = new ArrayList<>();
+        for (Block block : blocks) {
+            if (!visited.add(block)) {
+                continue;
+            }
+            stack.add(block);
+            nextOperand.add(0);
+            while (!stack.isEmpty()) {
+                int top = stack.size() - 1;
+                Node node = stack.get(top);
+                int operand = nextOperand.get(top);
+                if (operand < node.predecessorCount()) {
+                    nextOperand.set(top, operand + 1);
+                    Node predecessor = node.predecessor(operand);
+                    if (visited.add(predecessor)) {
+                        stack.add(predecessor);
+                        nextOperand.add(0);
+                    }
+                } else {
+                    order.add(node);
+                    stack.removeLast();
+                    nextOperand.removeLast();
+                }
+            }
+        }
+        return order;
+    }
+}
@@ -6,8 +6,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /// This depends on [Node#equals(java.lang.Object)] and  [Node#hashCode()] methods.
-/// As long as they take the block into account, it is only local, but replacement
-/// is extremely simple.
+/// They take the block into account, so only nodes of the same block are merged,
+/// see [GlobalValueNumbering] for merging across blocks.
 /// When using classes like [HashMap] or [java.util.HashSet] without this optimization,
 /// the [Node#equals(java.lang.Object)] and  [Node#hashCode()] methods must be adjusted.
 public class LocalValueNumbering implements Optimizer {
@@ -0,0 +1,32 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import org.jspecify.annotations.Nullable;
+
+/// How much the [PassManager] optimizes, from `-O0` to `-O3`.
+/// Each level includes the optimizations of the levels below it.
+public enum OptimizationLevel {
+    /// Only numbers values within blocks, which the backend relies on.
+    O0,
+    /// Also folds constants and simplifies arithmetic while the graph is constructed, see [Peephole],
+    /// and removes the resulting dead nodes, see [DeadNodeElimination].
+    O1,
+    /// Also numbers values across blocks instead of within them, see [GlobalValueNumbering].
+    O2,
+    /// Also propagates constants through phis and control flow, see [SparseConditionalConstantPropagation].
+    O3;
+
+    /// {@return the level of a command line flag like `-O2`, or `null` if it is not one}
+    public static @Nullable OptimizationLevel fromFlag(String flag) {
+        for (OptimizationLevel level : values()) {
+            if (flag.equals("-" + level.name())) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    /// {@return whether this level includes the optimizations of the given one}
+    public boolean includes(OptimizationLevel level) {
+        return compareTo(level) >= 0;
+    }
+}
@@ -6,4 +6,10 @@ import edu.kit.kastel.vads.compiler.ir.node.Node;
 public interface Optimizer {
 
     Node transform(Node node);
+
+    /// {@return an optimizer that transforms nodes with this optimizer first, and the result with the next one}
+    /// New nodes created by this optimizer, such as folded constants, are seen by the next one as well.
+    default Optimizer andThen(Optimizer next) {
+        return node -> next.transform(transform(node));
+    }
 }
@@ -0,0 +1,20 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+
+/// An optimization of a whole graph after it was constructed, run by a [PassManager].
+/// Unlike an [Optimizer], a pass can look at all nodes and the control flow between blocks.
+public interface Pass {
+
+    /// {@return a short name of this pass, for statistics}
+    String name();
+
+    /// Optimizes the graph.
+    /// @return the number of nodes this pass replaced or removed, for statistics
+    int run(IrGraph graph);
+
+    /// {@return whether this pass is skipped for functions that exceed the budget of the [PassManager]}
+    default boolean isExpensive() {
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/// Builds the optimization pipeline of an [OptimizationLevel] and runs it on each function.
+///
+/// The pipeline consists of the [Optimizer] applied to each node while a graph is constructed,
+/// and the [Pass]es run on the whole graph afterwards, in order.
+/// Expensive passes are skipped for functions with more live nodes than the budget,
+/// trading code quality for compile time on pathologically large functions.
+///
+/// A pass manager can be shared by functions that are compiled concurrently,
+/// each function gets fresh optimizers and passes.
+public final class PassManager {
+    private static final com.sun.management.@Nullable ThreadMXBean THREADS = threads();
+
+    private final OptimizationLevel level;
+    private final List<Supplier<? extends Pass>> passes = new ArrayList<>();
+    private final int nodeBudget;
+    private final boolean recordStatistics;
+
+    /// @param nodeBudget the number of live nodes up to which expensive passes run on a function
+    /// @param recordStatistics whether [#run(IrGraph)] measures the passes, which needs extra traversals
+    public PassManager(OptimizationLevel level, int nodeBudget, boolean recordStatistics) {
+        this.level = level;
+        this.nodeBudget = nodeBudget;
+        this.recordStatistics = recordStatistics;
+        if (level.includes(OptimizationLevel.O3)) {
+            this.passes.add(SparseConditionalConstantPropagation::new);
+        }
+        if (level.includes(OptimizationLevel.O2)) {
+            this.passes.add(GlobalValueNumbering::new);
+        }
+        // last, to remove what the passes before it replaced
+        if (level.includes(OptimizationLevel.O1)) {
+            this.passes.add(DeadNodeElimination::new);
+        }
+    }
+
+    /// {@return a new optimizer for the construction of a single graph}
+    /// From [OptimizationLevel#O2] on, [GlobalValueNumbering] numbers all nodes afterward instead.
+    public Optimizer newOptimizer() {
+        if (this.level.includes(OptimizationLevel.O2)) {
+            return new Peephole();
+        }
+        if (this.level.includes(OptimizationLevel.O1)) {
+            return new Peephole().andThen(new LocalValueNumbering());
+        }
+        return new LocalValueNumbering();
+    }
+
+    /// Runs all passes on the graph.
+    /// The nodes are counted again after each pass that changed the graph,
+    /// so the budget of later passes applies to the graph they actually get.
+    /// @return the statistics of each pass, or an empty list if they are not recorded
+    public List<PassStatistics> run(IrGraph graph) {
+        List<PassStatistics> statistics = new ArrayList<>();
+        if (this.passes.isEmpty()) {
+            return statistics;
+        }
+        List<Pass> passes = this.passes.stream().<Pass>map(Supplier::get).toList();
+        int nodes = nodeCount(graph);
+        for (int i = 0; i < passes.size(); i++) {
+            Pass pass = passes.get(i);
+            if (pass.isExpensive() && nodes > this.nodeBudget) {
+                if (this.recordStatistics) {
+                    statistics.add(new PassStatistics(graph.name(), pass.name(), true, 0, nodes, nodes, 0, 0));
+                }
+                continue;
+            }
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            int changes = pass.run(graph);
+            long nanos = System.nanoTime() - start;
+            long bytesAfter = allocatedBytes();
+            int nodesBefore = nodes;
+            if (changes > 0 && (this.recordStatistics || hasExpensivePass(passes.subList(i + 1, passes.size())))) {
+                nodes = nodeCount(graph);
+            }
+            if (this.recordStatistics) {
+                long allocated = bytesBefore < 0 ? -1 : bytesAfter - bytesBefore;
+                statistics.add(
+                    new PassStatistics(graph.name(), pass.name(), false, nanos, nodesBefore, nodes, changes, allocated)
+                );
+            }
+        }
+        return statistics;
+    }
+
+    private static boolean hasExpensivePass(List<Pass> passes) {
+        for (Pass pass : passes) {
+            if (pass.isExpensive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /// {@return a table of the statistics summed up per pass, in pipeline order}
+    public static String summary(List<PassStatistics> statistics) {
+        Map<String, List<PassStatistics>> byPass = new LinkedHashMap<>();
+        for (PassStatistics s : statistics) {
+            byPass.computeIfAbsent(s.pass(), _ -> new ArrayList<>()).add(s);
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-40s %8s %8s %12s %12s %12s %12s %14s%n",
+            "pass", "runs", "skipped", "time [ms]", "nodes in", "nodes out", "changed", "allocated [B]"));
+        for (Map.Entry<String, List<PassStatistics>> entry : byPass.entrySet()) {
+            int runs = 0;
+            int skipped = 0;
+            long nanos = 0;
+            long nodesBefore = 0;
+            long nodesAfter = 0;
+            long changes = 0;
+            long allocated = 0;
+            for (PassStatistics s : entry.getValue()) {
+                runs++;
+                if (s.skipped()) {
+                    skipped++;
+                }
+                nanos += s.nanos();
+                nodesBefore += s.nodesBefore();
+                nodesAfter += s.nodesAfter();
+                changes += s.changes();
+                allocated = allocated < 0 || s.allocatedBytes() < 0 ? -1 : allocated + s.allocatedBytes();
+            }
+            builder.append(String.format("%-40s %8d %8d %12.3f %12d %12d %12d %14d%n",
+                entry.getKey(), runs, skipped, nanos / 1e6, nodesBefore, nodesAfter, changes, allocated));
+        }
+        return builder.toString();
+    }
+
+    /// {@return the number of nodes the end block depends on, including the blocks of the nodes}
+    private static int nodeCount(IrGraph graph) {
+        return DeadNodeElimination.liveNodes(graph).size();
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.@Nullable ThreadMXBean threads() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+}
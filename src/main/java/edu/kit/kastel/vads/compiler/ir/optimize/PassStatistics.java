@@ -0,0 +1,23 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+/// What running a [Pass] on a single function cost and achieved.
+///
+/// @param function the name of the function
+/// @param pass the [Pass#name()]
+/// @param skipped whether the pass was skipped because the function exceeded the budget
+/// @param nanos the wall time the pass took
+/// @param nodesBefore the number of live nodes before the pass, including blocks
+/// @param nodesAfter the number of live nodes after the pass
+/// @param changes the number of nodes the pass replaced or removed, see [Pass#run]
+/// @param allocatedBytes the bytes the pass allocated, or `-1` if the JVM cannot measure it
+public record PassStatistics(
+    String function,
+    String pass,
+    boolean skipped,
+    long nanos,
+    int nodesBefore,
+    int nodesAfter,
+    int changes,
+    long allocatedBytes
+) {
+}
@@ -0,0 +1,121 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.jspecify.annotations.Nullable;
+
+/// Folds operations on constants and simplifies arithmetic identities of each new node,
+/// such as `x + 0`, `x - x` or `0 - (0 - x)`.
+/// All arithmetic wraps around, just like the 32-bit integers of the target.
+///
+/// A division or modulo that traps, by zero or as `MIN_VALUE / -1`, is kept as is.
+/// All others cannot be observed, so they are removed from the side effects when they are folded.
+///
+/// This should run before value numbering, see [Optimizer#andThen(Optimizer)],
+/// so the constants it creates are numbered as well.
+public class Peephole implements Optimizer {
+
+    @Override
+    public Node transform(Node node) {
+        @Nullable Node simplified = switch (node) {
+            case AddNode add -> simplifyAdd(add);
+            case SubNode sub -> simplifySub(sub);
+            case MulNode mul -> simplifyMul(mul);
+            case DivNode div -> simplifyDivMod(div, true);
+            case ModNode mod -> simplifyDivMod(mod, false);
+            default -> null;
+        };
+        if (simplified == null) {
+            return node;
+        }
+        // the new node is not used by anything yet, so it can simply be dropped
+        node.clearPredecessors();
+        return simplified;
+    }
+
+    private static @Nullable Node simplifyAdd(AddNode add) {
+        Node left = add.predecessor(BinaryOperationNode.LEFT);
+        Node right = add.predecessor(BinaryOperationNode.RIGHT);
+        if (left instanceof ConstIntNode l && right instanceof ConstIntNode r) {
+            return constant(add, l.value() + r.value());
+        }
+        if (isConstant(right, 0)) {
+            return left;
+        }
+        if (isConstant(left, 0)) {
+            return right;
+        }
+        return null;
+    }
+
+    private static @Nullable Node simplifySub(SubNode sub) {
+        Node left = sub.predecessor(BinaryOperationNode.LEFT);
+        Node right = sub.predecessor(BinaryOperationNode.RIGHT);
+        if (left instanceof ConstIntNode l && right instanceof ConstIntNode r) {
+            return constant(sub, l.value() - r.value());
+        }
+        if (isConstant(right, 0)) {
+            return left;
+        }
+        if (left == right) {
+            return constant(sub, 0);
+        }
+        // double negation, as in -(-x)
+        if (isConstant(left, 0) && right instanceof SubNode inner
+            && isConstant(inner.predecessor(BinaryOperationNode.LEFT), 0)) {
+            return inner.predecessor(BinaryOperationNode.RIGHT);
+        }
+        return null;
+    }
+
+    private static @Nullable Node simplifyMul(MulNode mul) {
+        Node left = mul.predecessor(BinaryOperationNode.LEFT);
+        Node right = mul.predecessor(BinaryOperationNode.RIGHT);
+        if (left instanceof ConstIntNode l && right instanceof ConstIntNode r) {
+            return constant(mul, l.value() * r.value());
+        }
+        if (isConstant(right, 0) || isConstant(left, 0)) {
+            return constant(mul, 0);
+        }
+        if (isConstant(right, 1)) {
+            return left;
+        }
+        if (isConstant(left, 1)) {
+            return right;
+        }
+        return null;
+    }
+
+    private static @Nullable Node simplifyDivMod(BinaryOperationNode divMod, boolean div) {
+        Node left = divMod.predecessor(BinaryOperationNode.LEFT);
+        Node right = divMod.predecessor(BinaryOperationNode.RIGHT);
+        if (!(right instanceof ConstIntNode r) || r.value() == 0) {
+            return null;
+        }
+        if (left instanceof ConstIntNode l) {
+            if (l.value() == Integer.MIN_VALUE && r.value() == -1) {
+                return null;
+            }
+            return constant(divMod, div ? l.value() / r.value() : l.value() % r.value());
+        }
+        if (r.value() == 1) {
+            return div ? left : constant(divMod, 0);
+        }
+        return null;
+    }
+
+    private static boolean isConstant(Node node, int value) {
+        return node instanceof ConstIntNode c && c.value() == value;
+    }
+
+    private static Node constant(Node replaced, int value) {
+        // constants always live in the start block, like those of the GraphConstructor
+        return new ConstIntNode(replaced.graph().startBlock(), value);
+    }
+}
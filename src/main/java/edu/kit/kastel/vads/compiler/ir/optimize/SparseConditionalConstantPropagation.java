@@ -0,0 +1,283 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
+import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSupport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/// Proves values constant through phis and control flow, following Wegman and Zadeck,
+/// "Constant Propagation with Conditional Branches".
+///
+/// Each value starts out as [Special#UNDEFINED] and is only ever lowered, to a [Constant] and then to
+/// [Special#VARYING]. Phis only merge the values of control flow edges that are known to be executable,
+/// so values that merely flow around a loop unchanged are proven constant, which local folding cannot do.
+/// The users of a lowered value are found through [IrGraph#successors(Node)],
+/// so the analysis takes time linear in the number of SSA edges.
+///
+/// Afterwards, all nodes with a constant value are replaced by constants in the start block,
+/// like those of the [edu.kit.kastel.vads.compiler.ir.GraphConstructor].
+/// A division or modulo is only replaced if it does not trap, it is then removed from the side effects as well.
+public class SparseConditionalConstantPropagation implements Pass {
+    private final Map<Node, Value> values = new IdentityHashMap<>();
+    private Set<Node> live = Set.of();
+    // indexed by Block#index, the nodes of each block and the control flow edges leaving it
+    private final List<List<Node>> nodesByBlock = new ArrayList<>();
+    private final List<List<Edge>> exits = new ArrayList<>();
+    private final BitSet executableBlocks = new BitSet();
+    // indexed by Block#index, which predecessors of each block are executable
+    private final List<BitSet> executableEdges = new ArrayList<>();
+    private final Deque<Edge> flowWorklist = new ArrayDeque<>();
+    private final Deque<Node> ssaWorklist = new ArrayDeque<>();
+
+    @Override
+    public String name() {
+        return "sparse conditional constant propagation";
+    }
+
+    @Override
+    public boolean isExpensive() {
+        return true;
+    }
+
+    @Override
+    public int run(IrGraph graph) {
+        collectBlocks(graph);
+        markExecutable(graph.startBlock());
+        while (!this.flowWorklist.isEmpty() || !this.ssaWorklist.isEmpty()) {
+            while (!this.flowWorklist.isEmpty()) {
+                Edge edge = this.flowWorklist.pop();
+                BitSet executable = this.executableEdges.get(edge.target().index());
+                if (executable.get(edge.index())) {
+                    continue;
+                }
+                executable.set(edge.index());
+                if (this.executableBlocks.get(edge.target().index())) {
+                    // only the phis see the new edge
+                    for (Node node : this.nodesByBlock.get(edge.target().index())) {
+                        if (node instanceof Phi) {
+                            evaluate(node);
+                        }
+                    }
+                } else {
+                    markExecutable(edge.target());
+                }
+            }
+            while (!this.ssaWorklist.isEmpty()) {
+                Node node = this.ssaWorklist.pop();
+                // the users of a node may include dead ones, which are left alone
+                if (this.live.contains(node) && this.executableBlocks.get(node.block().index())) {
+                    evaluate(node);
+                }
+            }
+        }
+        return replaceConstants(graph);
+    }
+
+    /// Collects the live nodes like [DeadNodeElimination#liveNodes(IrGraph)],
+    /// but keeps them in the order they are reached from the end block,
+    /// so each run replaces them and creates constants in the same order.
+    private void collectBlocks(IrGraph graph) {
+        for (int i = 0; i < graph.blockCount(); i++) {
+            this.nodesByBlock.add(new ArrayList<>());
+            this.exits.add(new ArrayList<>(2));
+            this.executableEdges.add(new BitSet());
+        }
+        Set<Node> live = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Node> worklist = new ArrayList<>();
+        live.add(graph.endBlock());
+        worklist.add(graph.endBlock());
+        while (!worklist.isEmpty()) {
+            Node node = worklist.removeLast();
+            if (node instanceof Block block) {
+                for (int i = 0; i < block.predecessorCount(); i++) {
+                    this.exits.get(block.predecessor(i).block().index()).add(new Edge(block, i));
+                }
+            } else {
+                this.nodesByBlock.get(node.block().index()).add(node);
+            }
+            if (live.add(node.block())) {
+                worklist.add(node.block());
+            }
+            for (int i = 0; i < node.predecessorCount(); i++) {
+                Node predecessor = node.predecessor(i);
+                if (live.add(predecessor)) {
+                    worklist.add(predecessor);
+                }
+            }
+        }
+        this.live = live;
+    }
+
+    private void markExecutable(Block block) {
+        this.executableBlocks.set(block.index());
+        for (Node node : this.nodesByBlock.get(block.index())) {
+            evaluate(node);
+        }
+        // there are no conditional jumps, so all control flow leaving an executable block is executable
+        this.flowWorklist.addAll(this.exits.get(block.index()));
+    }
+
+    private void evaluate(Node node) {
+        Value old = value(node);
+        Value current = switch (node) {
+            case ConstIntNode c -> new Constant(c.value());
+            case Phi phi -> evaluatePhi(phi);
+            case BinaryOperationNode binary -> evaluateBinary(binary);
+            case ProjNode proj when proj.projectionInfo() == ProjNode.SimpleProjectionInfo.RESULT ->
+                value(proj.predecessor(ProjNode.IN));
+            case ProjNode _, ReturnNode _, StartNode _, Block _ -> Special.VARYING;
+        };
+        if (current.equals(old)) {
+            return;
+        }
+        assert old == Special.UNDEFINED || current == Special.VARYING : node + " raised from " + old + " to " + current;
+        this.values.put(node, current);
+        this.ssaWorklist.addAll(node.graph().successors(node));
+    }
+
+    private Value evaluatePhi(Phi phi) {
+        BitSet executable = this.executableEdges.get(phi.block().index());
+        Value result = Special.UNDEFINED;
+        for (int i = 0; i < phi.predecessorCount(); i++) {
+            if (executable.get(i)) {
+                result = meet(result, value(phi.predecessor(i)));
+            }
+        }
+        return result;
+    }
+
+    private Value evaluateBinary(BinaryOperationNode node) {
+        Value left = value(node.predecessor(BinaryOperationNode.LEFT));
+        Value right = value(node.predecessor(BinaryOperationNode.RIGHT));
+        if (node instanceof MulNode && (left.equals(new Constant(0)) || right.equals(new Constant(0)))) {
+            return new Constant(0);
+        }
+        if (left == Special.UNDEFINED || right == Special.UNDEFINED) {
+            return Special.UNDEFINED;
+        }
+        if (!(left instanceof Constant(int l)) || !(right instanceof Constant(int r))) {
+            return Special.VARYING;
+        }
+        return switch (node) {
+            case AddNode _ -> new Constant(l + r);
+            case SubNode _ -> new Constant(l - r);
+            case MulNode _ -> new Constant(l * r);
+            case DivNode _ -> traps(l, r) ? Special.VARYING : new Constant(l / r);
+            case ModNode _ -> traps(l, r) ? Special.VARYING : new Constant(l % r);
+        };
+    }
+
+    private static boolean traps(int dividend, int divisor) {
+        return divisor == 0 || dividend == Integer.MIN_VALUE && divisor == -1;
+    }
+
+    private static Value meet(Value a, Value b) {
+        if (a == Special.UNDEFINED) {
+            return b;
+        }
+        if (b == Special.UNDEFINED || a.equals(b)) {
+            return a;
+        }
+        return Special.VARYING;
+    }
+
+    private Value value(Node node) {
+        return this.values.getOrDefault(node, Special.UNDEFINED);
+    }
+
+    /// {@return the number of nodes replaced by constants}
+    private int replaceConstants(IrGraph graph) {
+        Map<Integer, Node> constants = new HashMap<>();
+        for (Node node : this.nodesByBlock.get(graph.startBlock().index())) {
+            if (node instanceof ConstIntNode c) {
+                constants.putIfAbsent(c.value(), c);
+            }
+        }
+        DebugInfoHelper debugInfoHelper = graph.debugInfoHelper();
+        DebugInfo outer = debugInfoHelper.getDebugInfo();
+        int replaced = 0;
+        for (List<Node> nodes : this.nodesByBlock) {
+            for (Node node : nodes) {
+                if (!(value(node) instanceof Constant(int value))) {
+                    continue;
+                }
+                if (node instanceof ConstIntNode || node instanceof ProjNode) {
+                    // projections are replaced together with their division
+                    continue;
+                }
+                Node constant = constants.get(value);
+                if (constant == null) {
+                    debugInfoHelper.setDebugInfo(node.debugInfo());
+                    constant = new ConstIntNode(graph.startBlock(), value);
+                    constants.put(value, constant);
+                }
+                if (node instanceof DivNode || node instanceof ModNode) {
+                    replaced += replaceDivMod(node, constant);
+                } else {
+                    NodeSupport.replace(node, constant);
+                    replaced++;
+                }
+            }
+        }
+        debugInfoHelper.setDebugInfo(outer);
+        return replaced;
+    }
+
+    /// Replaces the result of a division that does not trap by the constant,
+    /// and its side effect by that of the division's input.
+    private static int replaceDivMod(Node divMod, Node constant) {
+        int replaced = 1;
+        Node sideEffect = divMod.predecessor(DivNode.SIDE_EFFECT);
+        for (Node user : divMod.graph().successors(divMod)) {
+            if (user instanceof ProjNode proj) {
+                boolean result = proj.projectionInfo() == ProjNode.SimpleProjectionInfo.RESULT;
+                NodeSupport.replace(proj, result ? constant : sideEffect);
+                replaced++;
+            }
+        }
+        divMod.clearPredecessors();
+        return replaced;
+    }
+
+    /// A control flow edge, which enters the target block as its predecessor with the given index.
+    private record Edge(Block target, int index) {
+    }
+
+    /// An element of the lattice, ordered from [Special#UNDEFINED] over [Constant] to [Special#VARYING].
+    private sealed interface Value {
+    }
+
+    private record Constant(int value) implements Value {
+    }
+
+    private enum Special implements Value {
+        /// no value is known yet, the node may not even be executed
+        UNDEFINED,
+        /// the node has different values
+        VARYING
+    }
+}
@@ -1,16 +1,21 @@
 package edu.kit.kastel.vads.compiler.ir.util;
 
-/// This is a dirty trick as we don't have Scoped Values.
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+
+/// Tracks the debug info that nodes get when they are created.
 /// It allows tracking debug info without having to pass it
 /// down all the layers.
+///
+/// Each [IrGraph] has its own, see [IrGraph#debugInfoHelper()],
+/// so several graphs can be constructed concurrently.
 public final class DebugInfoHelper {
-    private static DebugInfo debugInfo = DebugInfo.NoInfo.INSTANCE;
+    private DebugInfo debugInfo = DebugInfo.NoInfo.INSTANCE;
 
-    public static void setDebugInfo(DebugInfo debugInfo) {
-        DebugInfoHelper.debugInfo = debugInfo;
+    public void setDebugInfo(DebugInfo debugInfo) {
+        this.debugInfo = debugInfo;
     }
 
-    public static DebugInfo getDebugInfo() {
-        return debugInfo;
+    public DebugInfo getDebugInfo() {
+        return this.debugInfo;
     }
 }
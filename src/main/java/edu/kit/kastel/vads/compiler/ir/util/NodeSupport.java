@@ -15,4 +15,16 @@ public final class NodeSupport {
         }
         return pred;
     }
+
+    /// Reroutes all users of the node to the replacement, and detaches the node from its inputs.
+    public static void replace(Node node, Node replacement) {
+        for (Node user : node.graph().successors(node)) {
+            for (int i = 0; i < user.predecessorCount(); i++) {
+                if (user.predecessor(i) == node) {
+                    user.setPredecessor(i, replacement);
+                }
+            }
+        }
+        node.clearPredecessors();
+    }
 }
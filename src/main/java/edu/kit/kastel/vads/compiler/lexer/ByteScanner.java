@@ -0,0 +1,80 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/// Finds the next byte of some class in a source, e.g., to skip whitespace and comments.
+/// Each method searches from `from` (inclusive) to `to` (exclusive) and returns `to` if there is no such byte.
+///
+/// Running with `-DvectorLexer=true` and the `jdk.incubator.vector` module, see `run.sh`,
+/// makes [#INSTANCE] compare several bytes at once.
+public sealed class ByteScanner permits VectorByteScanner {
+    public static final ByteScanner INSTANCE = select();
+
+    ByteScanner() {
+    }
+
+    private static ByteScanner select() {
+        if (Boolean.getBoolean("vectorLexer")
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return new VectorByteScanner();
+        }
+        return new ByteScanner();
+    }
+
+    /// {@return the offset of the next byte that is neither a space, a tab nor a line break}
+    public int skipBlanks(MemorySegment source, int from, int to) {
+        int i = from;
+        while (i < to && isBlank(get(source, i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /// {@return the offset of the next `\n` or `\r`}
+    public int findLineBreak(MemorySegment source, int from, int to) {
+        int i = from;
+        while (i < to && !isLineBreak(get(source, i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /// {@return the offset of the next `*` or `/`, the only bytes that can open or close a block comment}
+    public int findCommentDelimiter(MemorySegment source, int from, int to) {
+        int i = from;
+        while (i < to && !isCommentDelimiter(get(source, i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /// {@return the offset of the next `{`, `}` or `/`, the only bytes that matter when splitting functions}
+    public int findBraceOrSlash(MemorySegment source, int from, int to) {
+        int i = from;
+        while (i < to && !isBraceOrSlash(get(source, i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static byte get(MemorySegment source, int offset) {
+        return source.get(ValueLayout.JAVA_BYTE, offset);
+    }
+
+    static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || isLineBreak(b);
+    }
+
+    static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    static boolean isCommentDelimiter(byte b) {
+        return b == '*' || b == '/';
+    }
+
+    static boolean isBraceOrSlash(byte b) {
+        return b == '{' || b == '}' || b == '/';
+    }
+}
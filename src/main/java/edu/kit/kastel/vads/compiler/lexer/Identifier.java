@@ -2,7 +2,8 @@ package edu.kit.kastel.vads.compiler.lexer;
 
 import edu.kit.kastel.vads.compiler.Span;
 
-public record Identifier(String value, Span span) implements Token {
+/// @param id the [SymbolTable] id of the identifier
+public record Identifier(String value, int id, Span span) implements Token {
     @Override
     public String asString() {
         return value();
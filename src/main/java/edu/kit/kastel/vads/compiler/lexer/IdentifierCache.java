@@ -0,0 +1,99 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/// An open-addressing table from identifier bytes to their [String] and [SymbolTable] id.
+/// Each distinct identifier of a source is only decoded and interned once, repeated
+/// occurrences are resolved by comparing bytes without any allocation.
+///
+/// Identifiers are numbered in the order they are first seen. These entry numbers are stable
+/// and can be stored instead of the identifier itself.
+/// Instances are used by a single lexer and are not thread-safe.
+final class IdentifierCache {
+    private static final int FREE = -1;
+    private int[] table = newTable(64);
+    private String[] names = new String[32];
+    private int[] ids = new int[32];
+    private int[] hashes = new int[32];
+    private int size;
+
+    /// {@return the entry of the identifier spelled by the `length` bytes at `start`}
+    int lookup(MemorySegment source, int start, int length) {
+        int hash = hash(source, start, length);
+        int mask = this.table.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = this.table[slot]) != FREE) {
+            if (this.hashes[entry] == hash && matches(this.names[entry], source, start, length)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        entry = this.size++;
+        if (entry == this.names.length) {
+            this.names = Arrays.copyOf(this.names, entry * 2);
+            this.ids = Arrays.copyOf(this.ids, entry * 2);
+            this.hashes = Arrays.copyOf(this.hashes, entry * 2);
+        }
+        byte[] bytes = source.asSlice(start, length).toArray(ValueLayout.JAVA_BYTE);
+        String name = new String(bytes, StandardCharsets.ISO_8859_1);
+        this.names[entry] = name;
+        this.ids[entry] = SymbolTable.idFor(name);
+        this.hashes[entry] = hash;
+        this.table[slot] = entry;
+        if (this.size * 2 > this.table.length) {
+            rehash();
+        }
+        return entry;
+    }
+
+    String name(int entry) {
+        return this.names[entry];
+    }
+
+    int id(int entry) {
+        return this.ids[entry];
+    }
+
+    private void rehash() {
+        this.table = newTable(this.table.length * 2);
+        int mask = this.table.length - 1;
+        for (int entry = 0; entry < this.size; entry++) {
+            int slot = this.hashes[entry] & mask;
+            while (this.table[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = entry;
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+    private static int hash(MemorySegment source, int start, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + source.get(ValueLayout.JAVA_BYTE, start + i);
+        }
+        // spread higher bits, as only the lower ones are used for the slot
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String name, MemorySegment source, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != (char) (source.get(ValueLayout.JAVA_BYTE, start + i) & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
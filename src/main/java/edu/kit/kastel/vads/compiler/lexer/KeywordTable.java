@@ -0,0 +1,84 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/// A perfect hash table for the [KeywordType]s.
+/// The hash only depends on the length and the first and last character of a word.
+/// Its multiplier is searched for when the class is initialized, so that no two keywords
+/// share a slot and a lookup needs at most one comparison.
+final class KeywordTable {
+    private static final int BITS = 6;
+    private static final int MAX_ATTEMPTS = 1 << 16;
+    private static final @Nullable KeywordType[] TABLE = new KeywordType[1 << BITS];
+    private static final int MULTIPLIER = findMultiplier();
+    private static final int MIN_LENGTH;
+    private static final int MAX_LENGTH;
+
+    static {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (KeywordType type : KeywordType.values()) {
+            String keyword = type.keyword();
+            min = Math.min(min, keyword.length());
+            max = Math.max(max, keyword.length());
+            TABLE[index(keyword.length(), keyword.charAt(0), keyword.charAt(keyword.length() - 1), MULTIPLIER)] = type;
+        }
+        MIN_LENGTH = min;
+        MAX_LENGTH = max;
+    }
+
+    private KeywordTable() {
+
+    }
+
+    /// {@return the keyword spelled by the `length` bytes at `start`, or `null` if it is no keyword}
+    static @Nullable KeywordType lookup(MemorySegment source, int start, int length) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return null;
+        }
+        int first = source.get(ValueLayout.JAVA_BYTE, start);
+        int last = source.get(ValueLayout.JAVA_BYTE, start + length - 1);
+        KeywordType candidate = TABLE[index(length, first, last, MULTIPLIER)];
+        if (candidate == null || candidate.keyword().length() != length) {
+            return null;
+        }
+        String keyword = candidate.keyword();
+        for (int i = 0; i < length; i++) {
+            if (source.get(ValueLayout.JAVA_BYTE, start + i) != keyword.charAt(i)) {
+                return null;
+            }
+        }
+        return candidate;
+    }
+
+    private static int index(int length, int first, int last, int multiplier) {
+        int h = (length * 31 + first) * 31 + last;
+        return (h * multiplier) >>> (Integer.SIZE - BITS);
+    }
+
+    private static int findMultiplier() {
+        int multiplier = 0x9E3779B1; // golden ratio, a common start for multiplicative hashing
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++, multiplier += 2) {
+            if (isPerfect(multiplier)) {
+                return multiplier;
+            }
+        }
+        throw new IllegalStateException("no perfect hash found for keywords");
+    }
+
+    private static boolean isPerfect(int multiplier) {
+        long used = 0;
+        for (KeywordType type : KeywordType.values()) {
+            String keyword = type.keyword();
+            int idx = index(keyword.length(), keyword.charAt(0), keyword.charAt(keyword.length() - 1), multiplier);
+            if ((used & (1L << idx)) != 0) {
+                return false;
+            }
+            used |= 1L << idx;
+        }
+        return true;
+    }
+}
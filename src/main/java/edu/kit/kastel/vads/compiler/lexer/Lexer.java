@@ -1,62 +1,200 @@
 package edu.kit.kastel.vads.compiler.lexer;
 
-import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.LineIndex;
 import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
-import org.jspecify.annotations.Nullable;
-
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+/// The lexer works on the raw bytes of the source.
+/// L1 sources are ASCII, any other byte results in an [ErrorToken].
 public class Lexer {
-    private final String source;
+    static final KeywordType[] KEYWORD_TYPES = KeywordType.values();
+    static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    static final SeparatorType[] SEPARATOR_TYPES = SeparatorType.values();
+    private static final ByteScanner SCANNER = ByteScanner.INSTANCE;
+
+    private final MemorySegment source;
+    private final int end;
+    private final LineIndex lines;
+    private final IdentifierCache identifiers = new IdentifierCache();
     private int pos;
-    private int lineStart;
-    private int line;
+    // the token found by the last call to scan()
+    private int tokenKind;
+    private int tokenData;
+    private int tokenStart;
 
-    private Lexer(String source) {
+    private Lexer(MemorySegment source) {
         this.source = source;
+        this.end = (int) source.byteSize();
+        this.lines = new LineIndex(source);
+    }
+
+    // lexes the given region of the source of another lexer
+    private Lexer(Lexer lexer, int start, int end) {
+        this.source = lexer.source;
+        this.end = end;
+        this.lines = lexer.lines;
+        this.pos = start;
     }
 
     public static Lexer forString(String source) {
-        return new Lexer(source);
+        return new Lexer(MemorySegment.ofArray(source.getBytes(StandardCharsets.UTF_8)));
     }
 
-    public Optional<Token> nextToken() {
-        ErrorToken error = skipWhitespace();
-        if (error != null) {
-            return Optional.of(error);
+    /// Creates a lexer that reads the given file through a read-only memory mapping.
+    /// The content is never decoded into a [String], so large inputs are neither copied
+    /// nor held on the heap. The mapping is released once the lexer and all
+    /// tokens referring to it are unreachable.
+    public static Lexer forFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file " + path + " is too large (" + size + " bytes)");
+            }
+            return new Lexer(channel.map(FileChannel.MapMode.READ_ONLY, 0, size, Arena.ofAuto()));
         }
-        if (this.pos >= this.source.length()) {
-            return Optional.empty();
+    }
+
+    /// Splits the remaining input into regions that can be lexed and parsed independently.
+    /// A region ends with the `}` that closes a top-level brace, once it is at least
+    /// `minLength` bytes long. Anything after the last such brace belongs to the last region.
+    /// Braces in comments are skipped the same way [#skipWhitespace()] skips comments.
+    /// {@return lexers for the regions in source order, or just this lexer if the input
+    /// cannot be split because of unbalanced braces or an unterminated comment}
+    public List<Lexer> splitFunctions(int minLength) {
+        List<Lexer> regions = new ArrayList<>();
+        int regionStart = this.pos;
+        int depth = 0;
+        int i = SCANNER.findBraceOrSlash(this.source, this.pos, this.end);
+        while (i < this.end) {
+            byte b = ByteScanner.get(this.source, i);
+            byte next = i + 1 < this.end ? ByteScanner.get(this.source, i + 1) : 0;
+            if (b == '/' && next == '/') {
+                i = SCANNER.findLineBreak(this.source, i + 2, this.end);
+            } else if (b == '/' && next == '*') {
+                i = skipBlockComment(i + 2);
+                if (i < 0) {
+                    return List.of(this);
+                }
+            } else if (b == '{') {
+                depth++;
+                i++;
+            } else if (b == '}') {
+                depth--;
+                i++;
+                if (depth < 0) {
+                    return List.of(this);
+                }
+                if (depth == 0 && i - regionStart >= minLength) {
+                    regions.add(new Lexer(this, regionStart, i));
+                    regionStart = i;
+                }
+            } else {
+                i++;
+            }
+            i = SCANNER.findBraceOrSlash(this.source, i, this.end);
         }
-        Token t = switch (peek()) {
-            case '(' -> separator(SeparatorType.PAREN_OPEN);
-            case ')' -> separator(SeparatorType.PAREN_CLOSE);
-            case '{' -> separator(SeparatorType.BRACE_OPEN);
-            case '}' -> separator(SeparatorType.BRACE_CLOSE);
-            case ';' -> separator(SeparatorType.SEMICOLON);
-            case '-' -> singleOrAssign(OperatorType.MINUS, OperatorType.ASSIGN_MINUS);
-            case '+' -> singleOrAssign(OperatorType.PLUS, OperatorType.ASSIGN_PLUS);
-            case '*' -> singleOrAssign(OperatorType.MUL, OperatorType.ASSIGN_MUL);
-            case '/' -> singleOrAssign(OperatorType.DIV, OperatorType.ASSIGN_DIV);
-            case '%' -> singleOrAssign(OperatorType.MOD, OperatorType.ASSIGN_MOD);
-            case '=' -> new Operator(OperatorType.ASSIGN, buildSpan(1));
-            default -> {
-                if (isIdentifierChar(peek())) {
-                    if (isNumeric(peek())) {
-                        yield lexNumber();
-                    }
-                    yield lexIdentifierOrKeyword();
+        if (depth != 0 || regions.isEmpty()) {
+            return List.of(this);
+        }
+        if (regionStart < this.end) {
+            Lexer last = regions.removeLast();
+            regions.add(new Lexer(this, last.pos, this.end));
+        }
+        return regions;
+    }
+
+    /// {@return the offset after the end of the block comment whose content starts at `from`,
+    /// or `-1` if it is unterminated}
+    private int skipBlockComment(int from) {
+        int depth = 1;
+        int i = from;
+        while (true) {
+            i = SCANNER.findCommentDelimiter(this.source, i, this.end);
+            if (i + 1 >= this.end) {
+                return -1;
+            }
+            byte b = ByteScanner.get(this.source, i);
+            byte next = ByteScanner.get(this.source, i + 1);
+            if (b == '*' && next == '/') {
+                i += 2;
+                if (--depth == 0) {
+                    return i;
                 }
-                yield new ErrorToken(String.valueOf(peek()), buildSpan(1));
+            } else if (b == '/' && next == '*') {
+                depth++;
+                i += 2;
+            } else {
+                i++;
             }
-        };
+        }
+    }
 
-        return Optional.of(t);
+    public Optional<Token> nextToken() {
+        if (!scan()) {
+            return Optional.empty();
+        }
+        int tokenLength = this.pos - this.tokenStart;
+        Span span = span(this.tokenStart, tokenLength);
+        return Optional.of(token(this.tokenKind, this.tokenData, this.tokenStart, tokenLength, span));
     }
 
-    private @Nullable ErrorToken skipWhitespace() {
+    /// Lexes all remaining tokens into a [TokenBuffer] without creating [Token] records.
+    public TokenBuffer tokenize() {
+        TokenBuffer buffer = TokenBuffer.complete(this);
+        while (scanInto(buffer)) {
+            // keep going
+        }
+        return buffer;
+    }
+
+    /// Creates a [TokenBuffer] that lexes the remaining tokens on demand into a small ring.
+    /// Besides the token last asked for in [TokenBuffer#has(int)], at least the `lookbehind`
+    /// tokens before it stay available. Memory use is independent of the size of the input.
+    public TokenBuffer stream(int lookbehind) {
+        return TokenBuffer.streaming(this, lookbehind);
+    }
+
+    /// Scans the next token into the given buffer.
+    /// {@return `false` if the end of the input was reached}
+    boolean scanInto(TokenBuffer buffer) {
+        if (!scan()) {
+            buffer.finish();
+            return false;
+        }
+        buffer.add(this.tokenKind, this.tokenData, this.tokenStart, this.pos - this.tokenStart);
+        return true;
+    }
+
+    /// Scans the next token and stores its description in the `token*` fields.
+    /// The token ends at the new [#pos].
+    /// {@return `false` if the end of the input was reached without finding another token}
+    private boolean scan() {
+        if (skipWhitespace()) {
+            return true;
+        }
+        if (this.pos >= this.end) {
+            return false;
+        }
+        this.tokenStart = this.pos;
+        lexToken();
+        return true;
+    }
+
+    /// Skips whitespace and comments.
+    /// {@return `true` if an unterminated comment was found, it is emitted as error token}
+    private boolean skipWhitespace() {
         enum CommentType {
             SINGLE_LINE,
             MULTI_LINE
@@ -65,12 +203,21 @@ public class Lexer {
         int multiLineCommentDepth = 0;
         int commentStart = -1;
         while (hasMore(0)) {
+            // jump to the next byte that can end the current state
+            if (currentCommentType == null) {
+                this.pos = SCANNER.skipBlanks(this.source, this.pos, this.end);
+            } else if (currentCommentType == CommentType.SINGLE_LINE) {
+                this.pos = SCANNER.findLineBreak(this.source, this.pos, this.end);
+            } else {
+                this.pos = SCANNER.findCommentDelimiter(this.source, this.pos, this.end);
+            }
+            if (!hasMore(0)) {
+                break;
+            }
             switch (peek()) {
                 case ' ', '\t' -> this.pos++;
                 case '\n', '\r' -> {
                     this.pos++;
-                    this.lineStart = this.pos;
-                    this.line++;
                     if (currentCommentType == CommentType.SINGLE_LINE) {
                         currentCommentType = null;
                     }
@@ -90,7 +237,7 @@ public class Lexer {
                             this.pos++;
                             continue;
                         } else {
-                            return null;
+                            return false;
                         }
                         commentStart = this.pos;
                         this.pos += 2;
@@ -101,7 +248,7 @@ public class Lexer {
                         this.pos++;
                         continue;
                     }
-                    return null;
+                    return false;
                 }
                 default -> {
                     if (currentCommentType == CommentType.MULTI_LINE) {
@@ -117,102 +264,131 @@ public class Lexer {
                         this.pos++;
                         continue;
                     }
-                    return null;
+                    return false;
                 }
             }
         }
-        if (!hasMore(0) && currentCommentType == CommentType.MULTI_LINE) {
-            return new ErrorToken(this.source.substring(commentStart), buildSpan(0));
+        if (currentCommentType == CommentType.MULTI_LINE) {
+            // the error token covers the unterminated comment
+            this.tokenKind = TokenKind.ERROR;
+            this.tokenData = 0;
+            this.tokenStart = commentStart;
+            return true;
         }
-        return null;
+        return false;
     }
 
-    private Separator separator(SeparatorType parenOpen) {
-        return new Separator(parenOpen, buildSpan(1));
-    }
-
-    private Token lexIdentifierOrKeyword() {
-        int off = 1;
-        while (hasMore(off) && isIdentifierChar(peek(off))) {
-            off++;
-        }
-        String id = this.source.substring(this.pos, this.pos + off);
-        // This is a naive solution. Using a better data structure (hashmap, trie) likely performs better.
-        for (KeywordType value : KeywordType.values()) {
-            if (value.keyword().equals(id)) {
-                return new Keyword(value, buildSpan(off));
+    /// Runs the [TokenDfa] from the current position and emits the longest match.
+    private void lexToken() {
+        int state = TokenDfa.START;
+        int off = 0;
+        while (hasMore(off)) {
+            int next = TokenDfa.next(state, TokenDfa.column(peek(off)));
+            if (next == TokenDfa.DEAD) {
+                break;
             }
+            state = next;
+            off++;
         }
-        return new Identifier(id, buildSpan(off));
-    }
-
-    private Token lexNumber() {
-        if (isHexPrefix()) {
-            int off = 2;
-            while (hasMore(off) && isHex(peek(off))) {
-                off++;
-            }
-            if (off == 2) {
-                // 0x without any further hex digits
-                return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(2));
+        int rule = TokenDfa.accepted(state);
+        if (rule == TokenDfa.NO_RULE && off > 0) {
+            // the automaton went past the longest match, replay the path to find it
+            int end = off;
+            off = 0;
+            state = TokenDfa.START;
+            for (int i = 0; i < end; i++) {
+                state = TokenDfa.next(state, TokenDfa.column(peek(i)));
+                if (TokenDfa.accepted(state) != TokenDfa.NO_RULE) {
+                    rule = TokenDfa.accepted(state);
+                    off = i + 1;
+                }
             }
-            return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 16, buildSpan(off));
-        }
-        int off = 1;
-        while (hasMore(off) && isNumeric(peek(off))) {
-            off++;
         }
-        if (peek() == '0' && off > 1) {
-            // leading zero is not allowed
-            return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(off));
+        if (rule == TokenDfa.NO_RULE) {
+            // no token starts with this byte
+            emit(TokenKind.ERROR, 0, 1);
+        } else if (TokenDfa.kind(rule) == TokenKind.IDENTIFIER) {
+            identifierOrKeyword(off);
+        } else if (TokenDfa.kind(rule) == TokenKind.NUMBER_LITERAL) {
+            number(TokenDfa.data(rule), off);
+        } else {
+            emit(TokenDfa.kind(rule), TokenDfa.data(rule), off);
         }
-        return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 10, buildSpan(off));
     }
 
-    private boolean isHexPrefix() {
-        return peek() == '0' && hasMore(1) && (peek(1) == 'x' || peek(1) == 'X');
+    private void identifierOrKeyword(int length) {
+        KeywordType keyword = KeywordTable.lookup(this.source, this.pos, length);
+        if (keyword != null) {
+            emit(TokenKind.KEYWORD, keyword.ordinal(), length);
+        } else {
+            emit(TokenKind.IDENTIFIER, this.identifiers.lookup(this.source, this.pos, length), length);
+        }
     }
 
-    private boolean isIdentifierChar(char c) {
-        return c == '_'
-            || c >= 'a' && c <= 'z'
-            || c >= 'A' && c <= 'Z'
-            || c >= '0' && c <= '9';
+    /// Computes the value of a number literal, so later phases do not need to parse it again.
+    private void number(int base, int length) {
+        long max = base == 16 ? 0xFFFF_FFFFL : 1L << 31;
+        int flags = base == 16 ? TokenKind.HEX_FLAG : 0;
+        long value = 0;
+        for (int i = base == 16 ? 2 : 0; i < length; i++) {
+            value = value * base + Character.digit(peek(i), base);
+            if (value > max) {
+                // stop before the long overflows, too
+                flags |= TokenKind.OVERFLOW_FLAG;
+                value = 0;
+                break;
+            }
+        }
+        emit(TokenKind.NUMBER_LITERAL | flags, (int) value, length);
     }
 
-    private boolean isNumeric(char c) {
-        return c >= '0' && c <= '9';
+    private void emit(int kind, int data, int proceed) {
+        this.tokenKind = kind;
+        this.tokenData = data;
+        this.pos += proceed;
     }
 
-    private boolean isHex(char c) {
-        return isNumeric(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    /// Creates the record of a token.
+    /// @param kind the [TokenKind], including the flags of number literals
+    /// @param data the kind-specific payload as described in [TokenBuffer]
+    Token token(int kind, int data, int start, int length, Span span) {
+        return switch (kind & TokenKind.MASK) {
+            case TokenKind.KEYWORD -> new Keyword(KEYWORD_TYPES[data], span);
+            case TokenKind.IDENTIFIER -> new Identifier(this.identifiers.name(data), this.identifiers.id(data), span);
+            case TokenKind.NUMBER_LITERAL -> new NumberLiteral(
+                text(start, start + length),
+                (kind & TokenKind.HEX_FLAG) != 0 ? 16 : 10,
+                data,
+                (kind & TokenKind.OVERFLOW_FLAG) != 0,
+                span
+            );
+            case TokenKind.OPERATOR -> new Operator(OPERATOR_TYPES[data], span);
+            case TokenKind.SEPARATOR -> new Separator(SEPARATOR_TYPES[data], span);
+            case TokenKind.ERROR -> new ErrorToken(text(start, start + length), span);
+            default -> throw new IllegalArgumentException("unknown token kind " + kind);
+        };
     }
 
-    private Token singleOrAssign(OperatorType single, OperatorType assign) {
-        if (hasMore(1) && peek(1) == '=') {
-            return new Operator(assign, buildSpan(2));
-        }
-        return new Operator(single, buildSpan(1));
+    Span span(int start, int length) {
+        return new Span.SourceSpan(this.lines, start, start + length);
     }
 
-    private Span buildSpan(int proceed) {
-        int start = this.pos;
-        this.pos += proceed;
-        Position.SimplePosition s = new Position.SimplePosition(this.line, start - this.lineStart);
-        Position.SimplePosition e = new Position.SimplePosition(this.line, start - this.lineStart + proceed);
-        return new Span.SimpleSpan(s, e);
+    private String text(int start, int end) {
+        byte[] bytes = this.source.asSlice(start, end - start).toArray(ValueLayout.JAVA_BYTE);
+        // ISO-8859-1 maps each byte to exactly one char, just like peek does
+        return new String(bytes, StandardCharsets.ISO_8859_1);
     }
 
     private char peek() {
-        return this.source.charAt(this.pos);
+        return peek(0);
     }
 
     private boolean hasMore(int offset) {
-        return this.pos + offset < this.source.length();
+        return this.pos + offset < this.end;
     }
 
     private char peek(int offset) {
-        return this.source.charAt(this.pos + offset);
+        return (char) (this.source.get(ValueLayout.JAVA_BYTE, this.pos + offset) & 0xFF);
     }
 
 }
@@ -2,7 +2,11 @@ package edu.kit.kastel.vads.compiler.lexer;
 
 import edu.kit.kastel.vads.compiler.Span;
 
-public record NumberLiteral(String value, int base, Span span) implements Token {
+/// @param value the literal as written in the source
+/// @param intValue the value as `int`, only meaningful if the literal does not overflow
+/// @param overflows whether the value is out of range, i.e., above `2^31` for decimal
+///                  or above `2^32 - 1` for hexadecimal literals
+public record NumberLiteral(String value, int base, int intValue, boolean overflows, Span span) implements Token {
     @Override
     public String asString() {
         return value();
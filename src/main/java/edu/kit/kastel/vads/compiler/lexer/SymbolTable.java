@@ -0,0 +1,34 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Assigns each distinct identifier a dense integer id.
+/// The ids `0` until [#FIRST_IDENTIFIER_ID] are reserved for keywords, which use the
+/// ordinal of their [KeywordType]. This allows later phases to key tables on plain ints.
+///
+/// The table is shared by all lexers and can safely be used from multiple threads.
+public final class SymbolTable {
+    public static final int FIRST_IDENTIFIER_ID = KeywordType.values().length;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(FIRST_IDENTIFIER_ID);
+
+    private SymbolTable() {
+
+    }
+
+    /// {@return the id of the given identifier, a new one is assigned on first use}
+    public static int idFor(String identifier) {
+        Integer id = IDS.get(identifier);
+        if (id != null) {
+            return id;
+        }
+        return IDS.computeIfAbsent(identifier, _ -> NEXT_ID.getAndIncrement());
+    }
+
+    /// {@return an upper bound (exclusive) of all ids assigned so far}
+    public static int idBound() {
+        return NEXT_ID.get();
+    }
+}
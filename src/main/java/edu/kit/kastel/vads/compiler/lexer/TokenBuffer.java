@@ -0,0 +1,169 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+
+import java.util.Arrays;
+
+/// Stores tokens in parallel primitive arrays instead of one [Token] record per token.
+/// Each token is described by its [TokenKind], a kind-specific payload, and its location.
+/// The payload is the ordinal of the keyword, operator or separator type,
+/// the [IdentifierCache] entry of an identifier, or the `int` value of a number literal.
+/// The base of a number literal and whether it overflows are flags in the upper bits of its kind.
+///
+/// Tokens are addressed by their index. The accessors only create the objects that are asked for,
+/// e.g., [#span(int)] creates a span, but neither the token record nor its text.
+///
+/// A buffer either holds all tokens of the input (see [Lexer#tokenize()]), or it is a
+/// streaming window (see [Lexer#stream(int)]) that lexes tokens on demand in [#has(int)]
+/// and only keeps a small ring of recent ones. Indices keep counting from the start of the input in both cases.
+public final class TokenBuffer {
+    // tokens are stored in chunks, so growing never copies token data
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    // lexing a few tokens at a time keeps the lexer loop hot
+    private static final int STREAMING_BATCH = 64;
+
+    private final Lexer lexer;
+    private final boolean streaming;
+    // a token is stored at [(token >>> CHUNK_BITS) & chunkMask][token & slotMask],
+    // a streaming window is a single chunk that is reused as a ring
+    private final int chunkMask;
+    private final int slotMask;
+    private final int lookbehind;
+    private byte[][] kinds = new byte[16][];
+    private int[][] data = new int[16][];
+    private int[][] starts = new int[16][];
+    private int[][] lengths = new int[16][];
+    private int size;
+    private boolean exhausted;
+
+    private TokenBuffer(Lexer lexer, boolean streaming, int chunkSize, int lookbehind) {
+        this.lexer = lexer;
+        this.lookbehind = lookbehind;
+        this.streaming = streaming;
+        this.chunkMask = streaming ? 0 : -1;
+        this.slotMask = chunkSize - 1;
+        if (streaming) {
+            addChunk(0, chunkSize);
+        }
+    }
+
+    static TokenBuffer complete(Lexer lexer) {
+        return new TokenBuffer(lexer, false, CHUNK_SIZE, 0);
+    }
+
+    static TokenBuffer streaming(Lexer lexer, int lookbehind) {
+        if (lookbehind < 0) {
+            throw new IllegalArgumentException("negative lookbehind " + lookbehind);
+        }
+        int capacity = Integer.highestOneBit(lookbehind + STREAMING_BATCH) << 1;
+        return new TokenBuffer(lexer, true, capacity, lookbehind);
+    }
+
+    void add(int kind, int data, int start, int length) {
+        int chunk = chunk(this.size);
+        int idx = this.size & this.slotMask;
+        if (!this.streaming && idx == 0) {
+            addChunk(chunk, CHUNK_SIZE);
+        }
+        this.kinds[chunk][idx] = (byte) kind;
+        this.data[chunk][idx] = data;
+        this.starts[chunk][idx] = start;
+        this.lengths[chunk][idx] = length;
+        this.size++;
+    }
+
+    void finish() {
+        this.exhausted = true;
+    }
+
+    private void addChunk(int chunk, int chunkSize) {
+        if (chunk == this.kinds.length) {
+            int capacity = chunk * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.data = Arrays.copyOf(this.data, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+        }
+        this.kinds[chunk] = new byte[chunkSize];
+        this.data[chunk] = new int[chunkSize];
+        this.starts[chunk] = new int[chunkSize];
+        this.lengths[chunk] = new int[chunkSize];
+    }
+
+    /// {@return the number of tokens lexed so far}
+    /// For a complete buffer, this is the number of tokens in the input.
+    public int size() {
+        return this.size;
+    }
+
+    /// {@return whether the input has the given token}
+    /// A streaming buffer lexes ahead if necessary, overwriting all tokens
+    /// that are not within its lookbehind of the given token.
+    public boolean has(int token) {
+        if (token >= this.size && !this.exhausted) {
+            int limit = token - this.lookbehind + this.slotMask + 1;
+            while (this.size < limit && this.lexer.scanInto(this)) {
+                // lex as far as the ring allows
+            }
+        }
+        return token < this.size;
+    }
+
+    /// {@return the [TokenKind] of the given token}
+    public int kind(int token) {
+        return kindAndFlags(token) & TokenKind.MASK;
+    }
+
+    private int kindAndFlags(int token) {
+        return this.kinds[chunk(token)][slot(token)];
+    }
+
+    public KeywordType keywordType(int token) {
+        assert kind(token) == TokenKind.KEYWORD : "not a keyword";
+        return Lexer.KEYWORD_TYPES[data(token)];
+    }
+
+    public OperatorType operatorType(int token) {
+        assert kind(token) == TokenKind.OPERATOR : "not an operator";
+        return Lexer.OPERATOR_TYPES[data(token)];
+    }
+
+    public SeparatorType separatorType(int token) {
+        assert kind(token) == TokenKind.SEPARATOR : "not a separator";
+        return Lexer.SEPARATOR_TYPES[data(token)];
+    }
+
+    public Span span(int token) {
+        int chunk = chunk(token);
+        int idx = slot(token);
+        return this.lexer.span(this.starts[chunk][idx], this.lengths[chunk][idx]);
+    }
+
+    /// {@return the given token as a record}
+    public Token token(int token) {
+        int chunk = chunk(token);
+        int idx = slot(token);
+        return this.lexer.token(
+            kindAndFlags(token), data(token), this.starts[chunk][idx], this.lengths[chunk][idx], span(token)
+        );
+    }
+
+    private int data(int token) {
+        return this.data[chunk(token)][slot(token)];
+    }
+
+    private int chunk(int token) {
+        return (token >>> CHUNK_BITS) & this.chunkMask;
+    }
+
+    // a streaming window would silently return the token that overwrote the requested one
+    private int slot(int token) {
+        if (token >= this.size || this.streaming && this.size - token > this.slotMask + 1) {
+            throw new IllegalStateException("token " + token + " is not in the window of the stream");
+        }
+        return token & this.slotMask;
+    }
+}
@@ -0,0 +1,204 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/// A deterministic finite automaton that recognizes all tokens except keywords,
+/// which are lexed as identifiers and then looked up in the [KeywordTable].
+///
+/// The automaton is generated from [#RULES] when the class is initialized.
+/// A token is the longest match of any rule, ties are resolved in favour of the earlier rule.
+/// Bytes that behave the same in every state share a column of the transition table.
+final class TokenDfa {
+    static final int DEAD = 0;
+    static final int START = 1;
+    static final int NO_RULE = -1;
+
+    private static final IntPredicate DIGIT = c -> c >= '0' && c <= '9';
+    private static final IntPredicate HEX_DIGIT = DIGIT.or(c -> c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F');
+    private static final IntPredicate IDENTIFIER_START = c -> c == '_' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+
+    /// The token specification. Rules for fixed spellings are derived from the token types.
+    static final List<Rule> RULES = rules();
+
+    // byte -> column
+    private static final byte[] CLASSES = new byte[256];
+    private static final int CLASS_COUNT;
+    // (state * CLASS_COUNT + column) -> state
+    private static final byte[] TRANSITIONS;
+    // state -> index of the rule accepted in that state
+    private static final int[] ACCEPTS;
+    private static final int[] KINDS = RULES.stream().mapToInt(Rule::kind).toArray();
+    private static final int[] DATA = RULES.stream().mapToInt(Rule::data).toArray();
+
+    static {
+        Automaton automaton = construct();
+        CLASS_COUNT = compressColumns(automaton.transitions());
+        int states = automaton.transitions().size();
+        TRANSITIONS = new byte[states * CLASS_COUNT];
+        for (int state = 0; state < states; state++) {
+            int[] row = automaton.transitions().get(state);
+            for (int b = 0; b < row.length; b++) {
+                TRANSITIONS[state * CLASS_COUNT + CLASSES[b]] = (byte) row[b];
+            }
+        }
+        ACCEPTS = automaton.accepts();
+    }
+
+    private TokenDfa() {
+
+    }
+
+    /// A token rule: a sequence of elements, each matching a single byte or,
+    /// if `repeated`, any number of bytes of its class.
+    record Rule(List<Element> elements, int kind, int data) {
+        static Rule literal(String spelling, int kind, int data) {
+            List<Element> elements = new ArrayList<>();
+            for (char c : spelling.toCharArray()) {
+                elements.add(new Element(b -> b == c, false));
+            }
+            return new Rule(elements, kind, data);
+        }
+    }
+
+    record Element(IntPredicate bytes, boolean repeated) {
+    }
+
+    private static List<Rule> rules() {
+        List<Rule> rules = new ArrayList<>();
+        for (SeparatorType type : SeparatorType.values()) {
+            rules.add(Rule.literal(type.toString(), TokenKind.SEPARATOR, type.ordinal()));
+        }
+        for (OperatorType type : OperatorType.values()) {
+            rules.add(Rule.literal(type.toString(), TokenKind.OPERATOR, type.ordinal()));
+        }
+        Element xPrefix = new Element(c -> c == 'x' || c == 'X', false);
+        Element zero = new Element(c -> c == '0', false);
+        // keywords are identifiers at first
+        rules.add(new Rule(List.of(
+            new Element(IDENTIFIER_START, false), new Element(IDENTIFIER_START.or(DIGIT), true)
+        ), TokenKind.IDENTIFIER, 0));
+        rules.add(new Rule(List.of(zero), TokenKind.NUMBER_LITERAL, 10));
+        rules.add(new Rule(List.of(
+            new Element(c -> c >= '1' && c <= '9', false), new Element(DIGIT, true)
+        ), TokenKind.NUMBER_LITERAL, 10));
+        // leading zeros are not allowed
+        rules.add(new Rule(List.of(zero, new Element(DIGIT, false), new Element(DIGIT, true)), TokenKind.ERROR, 0));
+        rules.add(new Rule(List.of(
+            zero, xPrefix, new Element(HEX_DIGIT, false), new Element(HEX_DIGIT, true)
+        ), TokenKind.NUMBER_LITERAL, 16));
+        // 0x without any further hex digits
+        rules.add(new Rule(List.of(zero, xPrefix), TokenKind.ERROR, 0));
+        return List.copyOf(rules);
+    }
+
+    static int column(int b) {
+        return CLASSES[b];
+    }
+
+    /// {@return the successor of `state` for a byte of the given column, possibly [#DEAD]}
+    static int next(int state, int column) {
+        return TRANSITIONS[state * CLASS_COUNT + column];
+    }
+
+    /// {@return the index of the rule matched when stopping in `state`, or [#NO_RULE]}
+    static int accepted(int state) {
+        return ACCEPTS[state];
+    }
+
+    /// {@return the [TokenKind] of the given rule}
+    static int kind(int rule) {
+        return KINDS[rule];
+    }
+
+    /// {@return the payload of tokens of the given rule, see [TokenBuffer]}
+    static int data(int rule) {
+        return DATA[rule];
+    }
+
+    private record Automaton(List<int[]> transitions, int[] accepts) {
+    }
+
+    /// Runs the subset construction on the rules.
+    /// An item of the nondeterministic automaton is a position within a rule.
+    private static Automaton construct() {
+        int[] firstItem = new int[RULES.size() + 1];
+        for (int rule = 0; rule < RULES.size(); rule++) {
+            firstItem[rule + 1] = firstItem[rule] + RULES.get(rule).elements().size() + 1;
+        }
+        BitSet start = new BitSet();
+        for (int rule = 0; rule < RULES.size(); rule++) {
+            addClosure(start, rule, 0, firstItem);
+        }
+        List<BitSet> states = new ArrayList<>(List.of(new BitSet(), start));
+        Map<BitSet, Integer> ids = new HashMap<>(Map.of(states.get(DEAD), DEAD, start, START));
+        List<int[]> transitions = new ArrayList<>();
+        for (int state = 0; state < states.size(); state++) {
+            BitSet items = states.get(state);
+            int[] row = new int[256];
+            for (int b = 0; b < row.length; b++) {
+                BitSet next = new BitSet();
+                for (int rule = 0; rule < RULES.size(); rule++) {
+                    List<Element> elements = RULES.get(rule).elements();
+                    for (int pos = 0; pos < elements.size(); pos++) {
+                        Element element = elements.get(pos);
+                        if (items.get(firstItem[rule] + pos) && element.bytes().test(b)) {
+                            addClosure(next, rule, element.repeated() ? pos : pos + 1, firstItem);
+                        }
+                    }
+                }
+                Integer id = ids.get(next);
+                if (id == null) {
+                    id = states.size();
+                    if (id > Byte.MAX_VALUE) {
+                        throw new IllegalStateException("too many states for the token specification");
+                    }
+                    states.add(next);
+                    ids.put(next, id);
+                }
+                row[b] = id;
+            }
+            transitions.add(row);
+        }
+        int[] accepts = new int[states.size()];
+        for (int state = 0; state < accepts.length; state++) {
+            accepts[state] = NO_RULE;
+            for (int rule = RULES.size() - 1; rule >= 0; rule--) {
+                if (states.get(state).get(firstItem[rule + 1] - 1)) {
+                    accepts[state] = rule;
+                }
+            }
+        }
+        return new Automaton(transitions, accepts);
+    }
+
+    private static void addClosure(BitSet items, int rule, int pos, int[] firstItem) {
+        items.set(firstItem[rule] + pos);
+        List<Element> elements = RULES.get(rule).elements();
+        // a repeated element may also be skipped
+        if (pos < elements.size() && elements.get(pos).repeated()) {
+            addClosure(items, rule, pos + 1, firstItem);
+        }
+    }
+
+    /// Assigns the same column to bytes with identical transitions in all states.
+    /// {@return the number of columns}
+    private static int compressColumns(List<int[]> transitions) {
+        Map<List<Integer>, Integer> columns = new HashMap<>();
+        for (int b = 0; b < CLASSES.length; b++) {
+            List<Integer> column = new ArrayList<>();
+            for (int[] row : transitions) {
+                column.add(row[b]);
+            }
+            CLASSES[b] = (byte) (int) columns.computeIfAbsent(column, _ -> columns.size());
+        }
+        return columns.size();
+    }
+}
@@ -0,0 +1,21 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+/// The kind tags of tokens stored in a [TokenBuffer].
+/// Each tag corresponds to one of the [Token] record types.
+public final class TokenKind {
+    public static final int KEYWORD = 0;
+    public static final int IDENTIFIER = 1;
+    public static final int NUMBER_LITERAL = 2;
+    public static final int OPERATOR = 3;
+    public static final int SEPARATOR = 4;
+    public static final int ERROR = 5;
+
+    // the tags only use the lower bits, the upper bits are flags of number literals
+    static final int MASK = 0xF;
+    static final int HEX_FLAG = 1 << 4;
+    static final int OVERFLOW_FLAG = 1 << 5;
+
+    private TokenKind() {
+
+    }
+}
@@ -0,0 +1,84 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+/// Scans [ByteVector#SPECIES_PREFERRED] bytes at a time and falls back to
+/// the scalar implementation for the tail of the range.
+/// Only loaded if the `jdk.incubator.vector` module is present, see [ByteScanner#INSTANCE].
+final class VectorByteScanner extends ByteScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final int SCALAR_PREFIX = 16;
+
+    @Override
+    public int skipBlanks(MemorySegment source, int from, int to) {
+        // most tokens are separated by a single space, and vectors only pay off for longer runs
+        int i = from;
+        int scalarEnd = Math.min(to, from + SCALAR_PREFIX);
+        while (i < scalarEnd) {
+            if (!isBlank(get(source, i))) {
+                return i;
+            }
+            i++;
+        }
+        for (; i <= to - LANES; i += LANES) {
+            ByteVector v = load(source, i);
+            VectorMask<Byte> blank = v.eq((byte) ' ')
+                .or(v.eq((byte) '\t'))
+                .or(v.eq((byte) '\n'))
+                .or(v.eq((byte) '\r'));
+            if (!blank.allTrue()) {
+                return i + blank.not().firstTrue();
+            }
+        }
+        return super.skipBlanks(source, i, to);
+    }
+
+    @Override
+    public int findLineBreak(MemorySegment source, int from, int to) {
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            ByteVector v = load(source, i);
+            VectorMask<Byte> lineBreak = v.eq((byte) '\n').or(v.eq((byte) '\r'));
+            if (lineBreak.anyTrue()) {
+                return i + lineBreak.firstTrue();
+            }
+        }
+        return super.findLineBreak(source, i, to);
+    }
+
+    @Override
+    public int findCommentDelimiter(MemorySegment source, int from, int to) {
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            ByteVector v = load(source, i);
+            VectorMask<Byte> delimiter = v.eq((byte) '*').or(v.eq((byte) '/'));
+            if (delimiter.anyTrue()) {
+                return i + delimiter.firstTrue();
+            }
+        }
+        return super.findCommentDelimiter(source, i, to);
+    }
+
+    @Override
+    public int findBraceOrSlash(MemorySegment source, int from, int to) {
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            ByteVector v = load(source, i);
+            VectorMask<Byte> found = v.eq((byte) '{').or(v.eq((byte) '}')).or(v.eq((byte) '/'));
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        return super.findBraceOrSlash(source, i, to);
+    }
+
+    private static ByteVector load(MemorySegment source, int offset) {
+        return ByteVector.fromMemorySegment(SPECIES, source, offset, ByteOrder.nativeOrder());
+    }
+}
@@ -1,187 +1,322 @@
 package edu.kit.kastel.vads.compiler.parser;
 
 import edu.kit.kastel.vads.compiler.lexer.Identifier;
-import edu.kit.kastel.vads.compiler.lexer.Keyword;
 import edu.kit.kastel.vads.compiler.lexer.KeywordType;
-import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
 import edu.kit.kastel.vads.compiler.lexer.Operator;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
-import edu.kit.kastel.vads.compiler.lexer.Separator;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import edu.kit.kastel.vads.compiler.Parallel;
 import edu.kit.kastel.vads.compiler.Span;
-import edu.kit.kastel.vads.compiler.lexer.Token;
-import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
-import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.lexer.TokenKind;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
-import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
-import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
-import edu.kit.kastel.vads.compiler.parser.symbol.Name;
-import edu.kit.kastel.vads.compiler.parser.type.BasicType;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class Parser {
+    // smaller functions are parsed together, as a task has some overhead
+    static final int MIN_REGION_LENGTH = 1 << 16;
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    // the binding strength of binary operators by ordinal, -1 for all other operators
+    private static final int[] BINARY_PRECEDENCE = binaryPrecedence();
+    // an L1 program is a single function, -DmultipleFunctions=true accepts several for the parallel front end
+    private static final boolean MULTIPLE_FUNCTIONS = Boolean.getBoolean("multipleFunctions");
+
     private final TokenSource tokenSource;
+    private final boolean multipleFunctions;
 
     public Parser(TokenSource tokenSource) {
+        this(tokenSource, MULTIPLE_FUNCTIONS);
+    }
+
+    /// @param multipleFunctions whether further functions may follow the first one
+    Parser(TokenSource tokenSource, boolean multipleFunctions) {
         this.tokenSource = tokenSource;
+        this.multipleFunctions = multipleFunctions;
     }
 
     public ProgramTree parseProgram() {
-        ProgramTree programTree = new ProgramTree(List.of(parseFunction()));
+        return new ProgramTree(parseFunctions(new TreeBuilder()));
+    }
+
+    /// Parses the functions of each region of [Lexer#splitFunctions(int)] as a separate task
+    /// on the common [ForkJoinPool] and returns them in source order.
+    /// If several regions contain errors, the error of the first one is thrown,
+    /// just like when parsing sequentially.
+    public static ProgramTree parseInParallel(Lexer lexer) {
+        return new ProgramTree(parseInParallel(lexer, TreeBuilder::new));
+    }
+
+    /// Parses the functions of each region like [#parseInParallel(Lexer)],
+    /// reporting them to separate actions for each region.
+    /// @param actions creates the actions for a region, they are only used by a single task
+    /// @return the functions as returned by [SyntaxActions#endFunction()], in source order
+    public static <E, F> List<F> parseInParallel(Lexer lexer, Supplier<? extends SyntaxActions<E, F>> actions) {
+        if (!MULTIPLE_FUNCTIONS || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+            return new Parser(TokenSource.streaming(lexer)).parseFunctions(actions.get());
+        }
+        return parseRegions(lexer.splitFunctions(MIN_REGION_LENGTH), actions);
+    }
+
+    /// Parses the functions of each region as a separate task, see [#parseInParallel(Lexer, Supplier)].
+    static <E, F> List<F> parseRegions(List<Lexer> regions, Supplier<? extends SyntaxActions<E, F>> actions) {
+        List<Callable<List<F>>> tasks = new ArrayList<>();
+        for (Lexer region : regions) {
+            tasks.add(() -> new Parser(TokenSource.streaming(region), true).parseFunctions(actions.get()));
+        }
+        List<F> functions = new ArrayList<>();
+        for (List<F> region : Parallel.invokeAll(tasks)) {
+            functions.addAll(region);
+        }
+        return functions;
+    }
+
+    /// Parses all functions of the token source, reporting their constructs to `actions`.
+    /// Unless multiple functions are enabled, anything after the first function is an error.
+    /// @return the functions as returned by [SyntaxActions#endFunction()], in source order
+    public <E, F> List<F> parseFunctions(SyntaxActions<E, F> actions) {
+        List<F> functions = new ArrayList<>();
+        do {
+            functions.add(parseFunction(actions));
+        } while (this.multipleFunctions && this.tokenSource.hasMore());
         if (this.tokenSource.hasMore()) {
             throw new ParseException("expected end of input but got " + this.tokenSource.peek());
         }
-        return programTree;
+        return functions;
     }
 
-    private FunctionTree parseFunction() {
-        Keyword returnType = this.tokenSource.expectKeyword(KeywordType.INT);
-        Identifier identifier = this.tokenSource.expectIdentifier();
+    private <E, F> F parseFunction(SyntaxActions<E, F> actions) {
+        Span returnType = this.tokenSource.span(this.tokenSource.expectKeyword(KeywordType.INT));
+        Identifier identifier = this.tokenSource.identifier(this.tokenSource.expectIdentifier());
         this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
         this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-        BlockTree body = parseBlock();
-        return new FunctionTree(
-            new TypeTree(BasicType.INT, returnType.span()),
-            name(identifier),
-            body
-        );
-    }
-
-    private BlockTree parseBlock() {
-        Separator bodyOpen = this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN);
-        List<StatementTree> statements = new ArrayList<>();
-        while (!(this.tokenSource.peek() instanceof Separator sep && sep.type() == SeparatorType.BRACE_CLOSE)) {
-            statements.add(parseStatement());
-        }
-        Separator bodyClose = this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE);
-        return new BlockTree(statements, bodyOpen.span().merge(bodyClose.span()));
-    }
-
-    private StatementTree parseStatement() {
-        StatementTree statement;
-        if (this.tokenSource.peek().isKeyword(KeywordType.INT)) {
-            statement = parseDeclaration();
-        } else if (this.tokenSource.peek().isKeyword(KeywordType.RETURN)) {
-            statement = parseReturn();
+        actions.beginFunction(returnType, identifier);
+        parseBlock(actions);
+        return actions.endFunction();
+    }
+
+    private <E> void parseBlock(SyntaxActions<E, ?> actions) {
+        actions.beginBlock(this.tokenSource.span(this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN)));
+        while (!this.tokenSource.nextIs(SeparatorType.BRACE_CLOSE)) {
+            parseStatement(actions);
+        }
+        actions.endBlock(this.tokenSource.span(this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE)));
+    }
+
+    private <E> void parseStatement(SyntaxActions<E, ?> actions) {
+        if (this.tokenSource.nextIs(KeywordType.INT)) {
+            parseDeclaration(actions);
+        } else if (this.tokenSource.nextIs(KeywordType.RETURN)) {
+            parseReturn(actions);
         } else {
-            statement = parseSimple();
+            parseSimple(actions);
         }
         this.tokenSource.expectSeparator(SeparatorType.SEMICOLON);
-        return statement;
     }
 
-    private StatementTree parseDeclaration() {
-        Keyword type = this.tokenSource.expectKeyword(KeywordType.INT);
-        Identifier ident = this.tokenSource.expectIdentifier();
-        ExpressionTree expr = null;
-        if (this.tokenSource.peek().isOperator(OperatorType.ASSIGN)) {
+    private <E> void parseDeclaration(SyntaxActions<E, ?> actions) {
+        Span type = this.tokenSource.span(this.tokenSource.expectKeyword(KeywordType.INT));
+        Identifier ident = this.tokenSource.identifier(this.tokenSource.expectIdentifier());
+        @Nullable E expr = null;
+        if (this.tokenSource.nextIs(OperatorType.ASSIGN)) {
             this.tokenSource.expectOperator(OperatorType.ASSIGN);
-            expr = parseExpression();
+            expr = parseExpression(actions);
         }
-        return new DeclarationTree(new TypeTree(BasicType.INT, type.span()), name(ident), expr);
+        actions.declaration(type, ident, expr);
     }
 
-    private StatementTree parseSimple() {
-        LValueTree lValue = parseLValue();
+    private <E> void parseSimple(SyntaxActions<E, ?> actions) {
+        Identifier lValue = parseLValue();
         Operator assignmentOperator = parseAssignmentOperator();
-        ExpressionTree expression = parseExpression();
-        return new AssignmentTree(lValue, assignmentOperator, expression);
+        E expression = parseExpression(actions);
+        actions.assignment(lValue, assignmentOperator, expression);
     }
 
     private Operator parseAssignmentOperator() {
-        if (this.tokenSource.peek() instanceof Operator op) {
-            return switch (op.type()) {
-                case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS -> {
-                    this.tokenSource.consume();
-                    yield op;
-                }
-                default -> throw new ParseException("expected assignment but got " + op.type());
+        OperatorType type = this.tokenSource.peekOperator();
+        if (type != null) {
+            return switch (type) {
+                case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS ->
+                    this.tokenSource.operator(this.tokenSource.consume());
+                default -> throw new ParseException("expected assignment but got " + type);
             };
         }
         throw new ParseException("expected assignment but got " + this.tokenSource.peek());
     }
 
-    private LValueTree parseLValue() {
-        if (this.tokenSource.peek().isSeparator(SeparatorType.PAREN_OPEN)) {
-            this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
-            LValueTree inner = parseLValue();
+    private Identifier parseLValue() {
+        int parens = 0;
+        while (this.tokenSource.nextIs(SeparatorType.PAREN_OPEN)) {
+            this.tokenSource.consume();
+            parens++;
+        }
+        Identifier identifier = this.tokenSource.identifier(this.tokenSource.expectIdentifier());
+        for (int i = 0; i < parens; i++) {
             this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-            return inner;
         }
-        Identifier identifier = this.tokenSource.expectIdentifier();
-        return new LValueIdentTree(name(identifier));
+        return identifier;
     }
 
-    private StatementTree parseReturn() {
-        Keyword ret = this.tokenSource.expectKeyword(KeywordType.RETURN);
-        ExpressionTree expression = parseExpression();
-        return new ReturnTree(expression, ret.span().start());
+    private <E> void parseReturn(SyntaxActions<E, ?> actions) {
+        Span ret = this.tokenSource.span(this.tokenSource.expectKeyword(KeywordType.RETURN));
+        E expression = parseExpression(actions);
+        actions.returnStatement(ret, expression);
     }
 
-    private ExpressionTree parseExpression() {
-        ExpressionTree lhs = parseTerm();
+    /// Parses an expression by precedence climbing, see [#BINARY_PRECEDENCE].
+    /// Parentheses and negations are kept on an explicit stack instead of recursing,
+    /// so the nesting depth of an expression is not limited by the call stack.
+    private <E> E parseExpression(SyntaxActions<E, ?> actions) {
+        ExpressionStack<E> stack = new ExpressionStack<>(actions);
         while (true) {
-            if (this.tokenSource.peek() instanceof Operator(var type, _)
-                && (type == OperatorType.PLUS || type == OperatorType.MINUS)) {
+            // prefixes of the next operand
+            while (true) {
+                if (this.tokenSource.nextIs(SeparatorType.PAREN_OPEN)) {
+                    this.tokenSource.consume();
+                    stack.pushParen();
+                } else if (this.tokenSource.nextIs(OperatorType.MINUS)) {
+                    stack.pushNegate(this.tokenSource.span(this.tokenSource.consume()));
+                } else {
+                    break;
+                }
+            }
+            stack.pushOperand(parseOperand(actions));
+            // closing parentheses after the operand
+            while (stack.hasOpenParen() && this.tokenSource.nextIs(SeparatorType.PAREN_CLOSE)) {
                 this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseTerm(), type);
-            } else {
-                return lhs;
+                stack.closeParen();
+            }
+            OperatorType type = this.tokenSource.peekOperator();
+            if (type == null || BINARY_PRECEDENCE[type.ordinal()] < 0) {
+                if (stack.hasOpenParen()) {
+                    this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
+                }
+                return stack.finish();
             }
+            this.tokenSource.consume();
+            stack.pushBinary(type);
         }
     }
 
-    private ExpressionTree parseTerm() {
-        ExpressionTree lhs = parseFactor();
-        while (true) {
-            if (this.tokenSource.peek() instanceof Operator(var type, _)
-                && (type == OperatorType.MUL || type == OperatorType.DIV || type == OperatorType.MOD)) {
-                this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseFactor(), type);
-            } else {
-                return lhs;
+    private <E> E parseOperand(SyntaxActions<E, ?> actions) {
+        switch (this.tokenSource.peekKind()) {
+            case TokenKind.IDENTIFIER -> {
+                return actions.identifier(this.tokenSource.identifier(this.tokenSource.consume()));
             }
+            case TokenKind.NUMBER_LITERAL -> {
+                return actions.literal(this.tokenSource.numberLiteral(this.tokenSource.consume()));
+            }
+            default -> throw new ParseException("invalid factor " + this.tokenSource.peek());
         }
     }
 
-    private ExpressionTree parseFactor() {
-        return switch (this.tokenSource.peek()) {
-            case Separator(var type, _) when type == SeparatorType.PAREN_OPEN -> {
-                this.tokenSource.consume();
-                ExpressionTree expression = parseExpression();
-                this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-                yield expression;
+    private static int[] binaryPrecedence() {
+        int[] precedence = new int[OperatorType.values().length];
+        for (OperatorType type : OperatorType.values()) {
+            precedence[type.ordinal()] = switch (type) {
+                case MUL, DIV, MOD -> 2;
+                case PLUS, MINUS -> 1;
+                case ASSIGN, ASSIGN_PLUS, ASSIGN_MINUS, ASSIGN_MUL, ASSIGN_DIV, ASSIGN_MOD -> -1;
+            };
+        }
+        return precedence;
+    }
+
+    /// The operands and pending operators of an expression.
+    /// Operators are binary operators (by ordinal), negations and opening parentheses.
+    /// Applying an operator reports it to the actions.
+    private static final class ExpressionStack<E> {
+        private static final int NEGATE = -1;
+        private static final int PAREN = -2;
+        // negations bind stronger than all binary operators
+        private static final int NEGATE_PRECEDENCE = Integer.MAX_VALUE;
+
+        private final SyntaxActions<E, ?> actions;
+        private final List<E> operands = new ArrayList<>();
+        private final List<Span> negations = new ArrayList<>();
+        private int[] operators = new int[16];
+        private int operatorCount;
+        private int openParens;
+
+        ExpressionStack(SyntaxActions<E, ?> actions) {
+            this.actions = actions;
+        }
+
+        void pushOperand(E operand) {
+            this.operands.add(operand);
+        }
+
+        void pushNegate(Span minusPos) {
+            this.negations.add(minusPos);
+            pushOperator(NEGATE);
+        }
+
+        void pushParen() {
+            this.openParens++;
+            pushOperator(PAREN);
+        }
+
+        boolean hasOpenParen() {
+            return this.openParens > 0;
+        }
+
+        /// Applies all operators on the stack that bind at least as strong as `type`,
+        /// as binary operators are left-associative.
+        void pushBinary(OperatorType type) {
+            int precedence = BINARY_PRECEDENCE[type.ordinal()];
+            while (this.operatorCount > 0 && precedence(this.operators[this.operatorCount - 1]) >= precedence) {
+                reduce();
             }
-            case Operator(var type, _) when type == OperatorType.MINUS -> {
-                Span span = this.tokenSource.consume().span();
-                yield new NegateTree(parseFactor(), span);
+            pushOperator(type.ordinal());
+        }
+
+        void closeParen() {
+            while (this.operators[this.operatorCount - 1] != PAREN) {
+                reduce();
             }
-            case Identifier ident -> {
-                this.tokenSource.consume();
-                yield new IdentExpressionTree(name(ident));
+            this.operatorCount--;
+            this.openParens--;
+        }
+
+        E finish() {
+            while (this.operatorCount > 0) {
+                reduce();
             }
-            case NumberLiteral(String value, int base, Span span) -> {
-                this.tokenSource.consume();
-                yield new LiteralTree(value, base, span);
+            assert this.operands.size() == 1 : "unbalanced expression";
+            return this.operands.getFirst();
+        }
+
+        private void pushOperator(int operator) {
+            if (this.operatorCount == this.operators.length) {
+                this.operators = Arrays.copyOf(this.operators, this.operatorCount * 2);
             }
-            case Token t -> throw new ParseException("invalid factor " + t);
-        };
-    }
+            this.operators[this.operatorCount++] = operator;
+        }
+
+        private static int precedence(int operator) {
+            return switch (operator) {
+                case NEGATE -> NEGATE_PRECEDENCE;
+                // never applied by a binary operator
+                case PAREN -> Integer.MIN_VALUE;
+                default -> BINARY_PRECEDENCE[operator];
+            };
+        }
 
-    private static NameTree name(Identifier ident) {
-        return new NameTree(Name.forIdentifier(ident), ident.span());
+        private void reduce() {
+            int operator = this.operators[--this.operatorCount];
+            E operand = this.operands.removeLast();
+            if (operator == NEGATE) {
+                this.operands.add(this.actions.negate(this.negations.removeLast(), operand));
+            } else {
+                E lhs = this.operands.removeLast();
+                this.operands.add(this.actions.binaryOperation(lhs, operand, OPERATOR_TYPES[operator]));
+            }
+        }
     }
 }
@@ -0,0 +1,39 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import org.jspecify.annotations.Nullable;
+
+/// Receives the constructs of each function from the [Parser] as soon as they are complete.
+/// Constructs are reported in evaluation order, operands before the operation using them
+/// and statements in source order, so a single pass can translate them directly.
+///
+/// `E` is the representation of expressions, `F` that of complete functions.
+public interface SyntaxActions<E, F> {
+
+    void beginFunction(Span returnType, Identifier name);
+
+    /// {@return the function that was begun last, after its body was reported}
+    F endFunction();
+
+    void beginBlock(Span open);
+
+    void endBlock(Span close);
+
+    void declaration(Span type, Identifier name, @Nullable E initializer);
+
+    void assignment(Identifier target, Operator operator, E expression);
+
+    void returnStatement(Span returnPos, E expression);
+
+    E identifier(Identifier identifier);
+
+    E literal(NumberLiteral literal);
+
+    E negate(Span minusPos, E operand);
+
+    E binaryOperation(E lhs, E rhs, OperatorType type);
+}
@@ -1,86 +1,133 @@
 package edu.kit.kastel.vads.compiler.parser;
 
+import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Identifier;
-import edu.kit.kastel.vads.compiler.lexer.Keyword;
 import edu.kit.kastel.vads.compiler.lexer.KeywordType;
 import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
 import edu.kit.kastel.vads.compiler.lexer.Operator;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
-import edu.kit.kastel.vads.compiler.lexer.Separator;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import edu.kit.kastel.vads.compiler.lexer.Token;
+import edu.kit.kastel.vads.compiler.lexer.TokenBuffer;
+import edu.kit.kastel.vads.compiler.lexer.TokenKind;
+import org.jspecify.annotations.Nullable;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
-
+/// Provides the tokens of a [TokenBuffer] to the parser.
+/// Tokens are checked by their [TokenKind] and payload. Consuming a token returns its index,
+/// which can be used to retrieve the parts of it that are actually needed.
+///
+/// A streaming token source only keeps a small window of tokens, so the index of a consumed
+/// token must be used before further tokens are consumed.
 public class TokenSource {
-    private final List<Token> tokens;
+    // the parser looks at the next token and at the one it just consumed
+    private static final int STREAMING_LOOKBEHIND = 1;
+
+    private final TokenBuffer tokens;
     private int idx;
 
+    /// Creates a token source that lexes the whole input up front.
     public TokenSource(Lexer lexer) {
-        this.tokens = Stream.generate(lexer::nextToken)
-            .takeWhile(Optional::isPresent)
-            .map(Optional::orElseThrow)
-            .toList();
+        this(lexer.tokenize());
+    }
+
+    public TokenSource(TokenBuffer tokens) {
+        this.tokens = tokens;
     }
 
-    TokenSource(List<Token> tokens) {
-        this.tokens = List.copyOf(tokens);
+    /// Creates a token source that lexes while the parser consumes tokens.
+    public static TokenSource streaming(Lexer lexer) {
+        return new TokenSource(lexer.stream(STREAMING_LOOKBEHIND));
     }
 
+    /// {@return the next token as record}
+    /// This is meant for error messages, prefer the allocation-free methods otherwise.
     public Token peek() {
         expectHasMore();
-        return this.tokens.get(this.idx);
+        return this.tokens.token(this.idx);
+    }
+
+    /// {@return the [TokenKind] of the next token}
+    public int peekKind() {
+        expectHasMore();
+        return this.tokens.kind(this.idx);
+    }
+
+    /// {@return the type of the next token if it is an operator, `null` otherwise}
+    public @Nullable OperatorType peekOperator() {
+        if (peekKind() != TokenKind.OPERATOR) {
+            return null;
+        }
+        return this.tokens.operatorType(this.idx);
+    }
+
+    public boolean nextIs(KeywordType type) {
+        return peekKind() == TokenKind.KEYWORD && this.tokens.keywordType(this.idx) == type;
+    }
+
+    public boolean nextIs(OperatorType type) {
+        return peekKind() == TokenKind.OPERATOR && this.tokens.operatorType(this.idx) == type;
+    }
+
+    public boolean nextIs(SeparatorType type) {
+        return peekKind() == TokenKind.SEPARATOR && this.tokens.separatorType(this.idx) == type;
     }
 
-    public Keyword expectKeyword(KeywordType type) {
-        Token token = peek();
-        if (!(token instanceof Keyword kw) || kw.type() != type) {
-            throw new ParseException("expected keyword '" + type + "' but got " + token);
+    public int expectKeyword(KeywordType type) {
+        if (!nextIs(type)) {
+            throw new ParseException("expected keyword '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return kw;
+        return this.idx++;
     }
 
-    public Separator expectSeparator(SeparatorType type) {
-        Token token = peek();
-        if (!(token instanceof Separator sep) || sep.type() != type) {
-            throw new ParseException("expected separator '" + type + "' but got " + token);
+    public int expectSeparator(SeparatorType type) {
+        if (!nextIs(type)) {
+            throw new ParseException("expected separator '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return sep;
+        return this.idx++;
     }
 
-    public Operator expectOperator(OperatorType type) {
-        Token token = peek();
-        if (!(token instanceof Operator op) || op.type() != type) {
-            throw new ParseException("expected operator '" + type + "' but got " + token);
+    public int expectOperator(OperatorType type) {
+        if (!nextIs(type)) {
+            throw new ParseException("expected operator '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return op;
+        return this.idx++;
     }
-    public Identifier expectIdentifier() {
-        Token token = peek();
-        if (!(token instanceof Identifier ident)) {
-            throw new ParseException("expected identifier but got " + token);
+
+    public int expectIdentifier() {
+        if (peekKind() != TokenKind.IDENTIFIER) {
+            throw new ParseException("expected identifier but got " + peek());
         }
-        this.idx++;
-        return ident;
+        return this.idx++;
+    }
+
+    public int consume() {
+        expectHasMore();
+        return this.idx++;
+    }
+
+    public Span span(int token) {
+        return this.tokens.span(token);
+    }
+
+    public Identifier identifier(int token) {
+        return (Identifier) this.tokens.token(token);
+    }
+
+    public Operator operator(int token) {
+        return (Operator) this.tokens.token(token);
     }
 
-    public Token consume() {
-        Token token = peek();
-        this.idx++;
-        return token;
+    public NumberLiteral numberLiteral(int token) {
+        return (NumberLiteral) this.tokens.token(token);
     }
 
     public boolean hasMore() {
-        return this.idx < this.tokens.size();
+        return this.tokens.has(this.idx);
     }
 
     private void expectHasMore() {
-        if (this.idx >= this.tokens.size()) {
+        if (!this.tokens.has(this.idx)) {
             throw new ParseException("reached end of file");
         }
     }
@@ -0,0 +1,116 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
+import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
+import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
+import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.type.BasicType;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/// Builds the AST of each function.
+final class TreeBuilder implements SyntaxActions<ExpressionTree, FunctionTree> {
+    private @Nullable TypeTree returnType;
+    private @Nullable NameTree name;
+    private @Nullable BlockTree body;
+    // the open blocks, innermost first
+    private final Deque<List<StatementTree>> statements = new ArrayDeque<>();
+    private final Deque<Span> blockOpens = new ArrayDeque<>();
+
+    @Override
+    public void beginFunction(Span returnType, Identifier name) {
+        this.returnType = new TypeTree(BasicType.INT, returnType);
+        this.name = name(name);
+    }
+
+    @Override
+    public FunctionTree endFunction() {
+        assert this.returnType != null && this.name != null && this.body != null : "no function begun";
+        FunctionTree function = new FunctionTree(this.returnType, this.name, this.body);
+        this.returnType = null;
+        this.name = null;
+        this.body = null;
+        return function;
+    }
+
+    @Override
+    public void beginBlock(Span open) {
+        this.statements.push(new ArrayList<>());
+        this.blockOpens.push(open);
+    }
+
+    @Override
+    public void endBlock(Span close) {
+        BlockTree block = new BlockTree(this.statements.pop(), this.blockOpens.pop().merge(close));
+        if (this.statements.isEmpty()) {
+            this.body = block;
+        } else {
+            add(block);
+        }
+    }
+
+    @Override
+    public void declaration(Span type, Identifier name, @Nullable ExpressionTree initializer) {
+        add(new DeclarationTree(new TypeTree(BasicType.INT, type), name(name), initializer));
+    }
+
+    @Override
+    public void assignment(Identifier target, Operator operator, ExpressionTree expression) {
+        add(new AssignmentTree(new LValueIdentTree(name(target)), operator, expression));
+    }
+
+    @Override
+    public void returnStatement(Span returnPos, ExpressionTree expression) {
+        add(new ReturnTree(expression, returnPos));
+    }
+
+    @Override
+    public ExpressionTree identifier(Identifier identifier) {
+        return new IdentExpressionTree(name(identifier));
+    }
+
+    @Override
+    public ExpressionTree literal(NumberLiteral literal) {
+        return new LiteralTree(literal.value(), literal.base(), literal.intValue(), literal.overflows(), literal.span());
+    }
+
+    @Override
+    public ExpressionTree negate(Span minusPos, ExpressionTree operand) {
+        return new NegateTree(operand, minusPos);
+    }
+
+    @Override
+    public ExpressionTree binaryOperation(ExpressionTree lhs, ExpressionTree rhs, OperatorType type) {
+        return new BinaryOperationTree(lhs, rhs, type);
+    }
+
+    private void add(StatementTree statement) {
+        List<StatementTree> block = this.statements.peek();
+        assert block != null : "statement outside of a block";
+        block.add(statement);
+    }
+
+    private static NameTree name(Identifier ident) {
+        return new NameTree(Name.forIdentifier(ident), ident.span());
+    }
+}
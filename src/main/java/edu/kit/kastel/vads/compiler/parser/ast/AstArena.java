@@ -0,0 +1,320 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.LineIndex;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.KeywordType;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.type.BasicType;
+import edu.kit.kastel.vads.compiler.parser.visitor.NoOpVisitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.RecursivePostorderVisitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/// A function stored in primitive arrays instead of one record per node.
+///
+/// Nodes are numbered in postorder, so the children of a node come right before it
+/// and a linear scan over `0..size()` sees every node after its children.
+/// Each node records where its subtree starts, which is enough to find its children:
+/// the last child of node `i` is `i - 1`, and the sibling before child `c` is `start(c) - 1`.
+/// Names and the texts of literals are kept in side tables, types are stored by ordinal.
+/// Each distinct name of the function is stored once and numbered locally,
+/// so the table grows with the function rather than with the whole program.
+///
+/// Nodes store their whole span, except for assignments, which store the span of their operator.
+public final class AstArena {
+    // the lengths of the tokens that start negations and returns
+    private static final int MINUS_LENGTH = OperatorType.MINUS.toString().length();
+    private static final int RETURN_LENGTH = KeywordType.RETURN.keyword().length();
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    private static final BasicType[] TYPES = BasicType.values();
+
+    private final LineIndex lines;
+    private int[] kinds;
+    private int[] starts;
+    private int[] values;
+    private int[] spanStarts;
+    private int[] spanEnds;
+    private int size;
+    private @Nullable Name[] names;
+    private final Map<Name, Integer> nameIndices = new HashMap<>();
+    private String[] literalTexts;
+    private int[] literalValues;
+    private int literalCount;
+
+    private AstArena(LineIndex lines, int capacity) {
+        this.lines = lines;
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.values = new int[capacity];
+        this.spanStarts = new int[capacity];
+        this.spanEnds = new int[capacity];
+        this.names = new Name[16];
+        this.literalTexts = new String[16];
+        this.literalValues = new int[16];
+    }
+
+    /// {@return the given function in flat form}
+    public static AstArena of(FunctionTree function) {
+        LineIndex lines = switch (function.span()) {
+            case Span.SourceSpan span -> span.lines();
+        };
+        AstArena arena = new AstArena(lines, 64);
+        function.accept(new RecursivePostorderVisitor<>(new Flattener()), arena);
+        return arena;
+    }
+
+    /// {@return the number of nodes}
+    public int size() {
+        return this.size;
+    }
+
+    /// {@return the index of the function node, which is the last node}
+    public int root() {
+        return this.size - 1;
+    }
+
+    /// {@return the [AstKind] of the node}
+    public int kind(int node) {
+        return this.kinds[node] & AstKind.MASK;
+    }
+
+    /// {@return the first node of the subtree of the given node, which is the node itself for leaves}
+    public int start(int node) {
+        return this.starts[node];
+    }
+
+    /// {@return the child before the given child of the same parent, if `start(parent) <= result`}
+    public int previousSibling(int child) {
+        return this.starts[child] - 1;
+    }
+
+    /// {@return the number of children of the node}
+    public int childCount(int node) {
+        int count = 0;
+        for (int child = node - 1; child >= this.starts[node]; child = previousSibling(child)) {
+            count++;
+        }
+        return count;
+    }
+
+    /// {@return the initializer of a declaration, or `-1` if it has none}
+    public int initializer(int node) {
+        assert kind(node) == AstKind.DECLARATION;
+        return kind(node - 1) == AstKind.NAME ? -1 : node - 1;
+    }
+
+    /// {@return the span of the node, as [Tree#span()] of its record would return it}
+    public Span span(int node) {
+        if (kind(node) == AstKind.ASSIGNMENT) {
+            int expression = node - 1;
+            int lValue = previousSibling(expression);
+            return new Span.SourceSpan(this.lines, this.spanStarts[lValue], this.spanEnds[expression]);
+        }
+        return new Span.SourceSpan(this.lines, this.spanStarts[node], this.spanEnds[node]);
+    }
+
+    /// {@return the span of the operator of an assignment, the minus of a negation or the keyword of a return}
+    public Span tokenSpan(int node) {
+        int start = this.spanStarts[node];
+        return switch (kind(node)) {
+            case AstKind.ASSIGNMENT -> new Span.SourceSpan(this.lines, start, this.spanEnds[node]);
+            case AstKind.NEGATE -> new Span.SourceSpan(this.lines, start, start + MINUS_LENGTH);
+            case AstKind.RETURN -> new Span.SourceSpan(this.lines, start, start + RETURN_LENGTH);
+            default -> throw new IllegalArgumentException("node " + node + " has no token span");
+        };
+    }
+
+    /// {@return the name of a name node}
+    public Name name(int node) {
+        assert kind(node) == AstKind.NAME;
+        Name name = this.names[this.values[node]];
+        assert name != null;
+        return name;
+    }
+
+    /// {@return the operator of a binary operation or an assignment}
+    public OperatorType operatorType(int node) {
+        return OPERATOR_TYPES[this.values[node]];
+    }
+
+    /// {@return the type of a type node}
+    public BasicType type(int node) {
+        assert kind(node) == AstKind.TYPE;
+        return TYPES[this.values[node]];
+    }
+
+    /// {@return the literal as written in the source}
+    public String literalText(int node) {
+        assert kind(node) == AstKind.LITERAL;
+        return this.literalTexts[this.values[node]];
+    }
+
+    /// {@return the value of the literal, see [LiteralTree#intValue()]}
+    public int literalValue(int node) {
+        assert kind(node) == AstKind.LITERAL;
+        return this.literalValues[this.values[node]];
+    }
+
+    public int literalBase(int node) {
+        return (this.kinds[node] & AstKind.HEX_FLAG) != 0 ? 16 : 10;
+    }
+
+    public boolean literalOverflows(int node) {
+        return (this.kinds[node] & AstKind.OVERFLOW_FLAG) != 0;
+    }
+
+    private void add(int kind, int start, int value, int spanStart, int spanEnd) {
+        if (this.size == this.kinds.length) {
+            int capacity = this.size * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.spanStarts = Arrays.copyOf(this.spanStarts, capacity);
+            this.spanEnds = Arrays.copyOf(this.spanEnds, capacity);
+        }
+        int node = this.size++;
+        this.kinds[node] = kind;
+        this.starts[node] = start == -1 ? node : start;
+        this.values[node] = value;
+        this.spanStarts[node] = spanStart;
+        this.spanEnds[node] = spanEnd;
+    }
+
+    private void addLeaf(int kind, int value, Span span) {
+        add(kind, -1, value, span.startOffset(), span.endOffset());
+    }
+
+    /// Adds a node whose span reaches from the start of its first to the end of its last child.
+    private void addInner(int kind, int firstChild, int value) {
+        int lastChild = this.size - 1;
+        add(kind, this.starts[firstChild], value, this.spanStarts[firstChild], this.spanEnds[lastChild]);
+    }
+
+    /// {@return the local index of the name, which is added to the table if it is new}
+    private int addName(Name name) {
+        int count = this.nameIndices.size();
+        int index = this.nameIndices.computeIfAbsent(name, _ -> count);
+        if (index == count) {
+            if (count == this.names.length) {
+                this.names = Arrays.copyOf(this.names, count * 2);
+            }
+            this.names[count] = name;
+        }
+        return index;
+    }
+
+    private int addLiteral(LiteralTree literal) {
+        if (this.literalCount == this.literalTexts.length) {
+            this.literalTexts = Arrays.copyOf(this.literalTexts, this.literalCount * 2);
+            this.literalValues = Arrays.copyOf(this.literalValues, this.literalCount * 2);
+        }
+        this.literalTexts[this.literalCount] = literal.value();
+        this.literalValues[this.literalCount] = literal.intValue();
+        return this.literalCount++;
+    }
+
+    /// Appends each node once its children are appended.
+    private static final class Flattener implements NoOpVisitor<AstArena> {
+
+        @Override
+        public Unit visit(AssignmentTree assignmentTree, AstArena data) {
+            int lValue = data.previousSibling(data.size - 1);
+            Span operator = assignmentTree.operator().span();
+            data.add(
+                AstKind.ASSIGNMENT, data.starts[lValue], assignmentTree.operator().type().ordinal(),
+                operator.startOffset(), operator.endOffset()
+            );
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(BinaryOperationTree binaryOperationTree, AstArena data) {
+            int lhs = data.previousSibling(data.size - 1);
+            data.addInner(AstKind.BINARY_OPERATION, lhs, binaryOperationTree.operatorType().ordinal());
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(BlockTree blockTree, AstArena data) {
+            int start = data.size;
+            for (int i = 0; i < blockTree.statements().size(); i++) {
+                start = data.starts[start - 1];
+            }
+            data.add(AstKind.BLOCK, start == data.size ? -1 : start, 0,
+                blockTree.span().startOffset(), blockTree.span().endOffset());
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(DeclarationTree declarationTree, AstArena data) {
+            int name = declarationTree.initializer() == null ? data.size - 1 : data.previousSibling(data.size - 1);
+            data.addInner(AstKind.DECLARATION, name - 1, 0);
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(FunctionTree functionTree, AstArena data) {
+            int name = data.previousSibling(data.size - 1);
+            data.addInner(AstKind.FUNCTION, name - 1, data.values[name]);
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(IdentExpressionTree identExpressionTree, AstArena data) {
+            int name = data.size - 1;
+            data.addInner(AstKind.IDENT_EXPRESSION, name, data.values[name]);
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(LiteralTree literalTree, AstArena data) {
+            int flags = (literalTree.base() == 16 ? AstKind.HEX_FLAG : 0)
+                | (literalTree.overflows() ? AstKind.OVERFLOW_FLAG : 0);
+            data.addLeaf(AstKind.LITERAL | flags, data.addLiteral(literalTree), literalTree.span());
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(LValueIdentTree lValueIdentTree, AstArena data) {
+            int name = data.size - 1;
+            data.addInner(AstKind.LVALUE_IDENT, name, data.values[name]);
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(NameTree nameTree, AstArena data) {
+            data.addLeaf(AstKind.NAME, data.addName(nameTree.name()), nameTree.span());
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(NegateTree negateTree, AstArena data) {
+            int expression = data.size - 1;
+            data.add(AstKind.NEGATE, data.starts[expression], 0,
+                negateTree.minusPos().startOffset(), data.spanEnds[expression]);
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(ReturnTree returnTree, AstArena data) {
+            int expression = data.size - 1;
+            data.add(AstKind.RETURN, data.starts[expression], 0,
+                returnTree.returnPos().startOffset(), data.spanEnds[expression]);
+            return Unit.INSTANCE;
+        }
+
+        @Override
+        public Unit visit(TypeTree typeTree, AstArena data) {
+            BasicType type = switch (typeTree.type()) {
+                case BasicType basicType -> basicType;
+            };
+            data.addLeaf(AstKind.TYPE, type.ordinal(), typeTree.span());
+            return Unit.INSTANCE;
+        }
+    }
+}
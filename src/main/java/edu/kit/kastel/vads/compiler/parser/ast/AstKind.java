@@ -0,0 +1,27 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+/// The kind tags of nodes stored in an [AstArena].
+/// Each tag corresponds to one of the [Tree] record types.
+public final class AstKind {
+    public static final int FUNCTION = 0;
+    public static final int BLOCK = 1;
+    public static final int DECLARATION = 2;
+    public static final int ASSIGNMENT = 3;
+    public static final int RETURN = 4;
+    public static final int BINARY_OPERATION = 5;
+    public static final int NEGATE = 6;
+    public static final int IDENT_EXPRESSION = 7;
+    public static final int LITERAL = 8;
+    public static final int LVALUE_IDENT = 9;
+    public static final int NAME = 10;
+    public static final int TYPE = 11;
+
+    // the tags only use the lower bits, the upper bits are flags of literals
+    static final int MASK = 0xF;
+    static final int HEX_FLAG = 1 << 4;
+    static final int OVERFLOW_FLAG = 1 << 5;
+
+    private AstKind() {
+
+    }
+}
@@ -9,7 +9,7 @@ public record BinaryOperationTree(
 ) implements ExpressionTree {
     @Override
     public Span span() {
-        return lhs().span().merge(rhs().span());
+        return ExpressionSpans.first(lhs()).merge(ExpressionSpans.last(rhs()));
     }
 
     @Override
@@ -0,0 +1,42 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.Span;
+
+/// Finds the first and last leaf spans of expressions in a loop,
+/// as operands can be nested arbitrarily deep.
+final class ExpressionSpans {
+
+    private ExpressionSpans() {
+
+    }
+
+    /// {@return a span that starts where the given expression starts}
+    static Span first(ExpressionTree expression) {
+        ExpressionTree current = expression;
+        while (true) {
+            switch (current) {
+                case BinaryOperationTree binary -> current = binary.lhs();
+                case NegateTree negate -> {
+                    return negate.minusPos();
+                }
+                case IdentExpressionTree _, LiteralTree _ -> {
+                    return current.span();
+                }
+            }
+        }
+    }
+
+    /// {@return a span that ends where the given expression ends}
+    static Span last(ExpressionTree expression) {
+        ExpressionTree current = expression;
+        while (true) {
+            switch (current) {
+                case BinaryOperationTree binary -> current = binary.rhs();
+                case NegateTree negate -> current = negate.expression();
+                case IdentExpressionTree _, LiteralTree _ -> {
+                    return current.span();
+                }
+            }
+        }
+    }
+}
@@ -6,7 +6,7 @@ import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
 public record NegateTree(ExpressionTree expression, Span minusPos) implements ExpressionTree {
     @Override
     public Span span() {
-        return minusPos().merge(expression().span());
+        return minusPos().merge(ExpressionSpans.last(expression()));
     }
 
     @Override
@@ -1,8 +1,19 @@
 package edu.kit.kastel.vads.compiler.parser.symbol;
 
-record IdentName(String identifier) implements Name {
+record IdentName(String identifier, int id) implements Name {
     @Override
     public String asString() {
         return identifier();
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        // ids are unique per identifier, no need to compare the strings
+        return obj instanceof IdentName other && other.id == this.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.id;
+    }
 }
@@ -3,6 +3,11 @@ package edu.kit.kastel.vads.compiler.parser.symbol;
 import edu.kit.kastel.vads.compiler.lexer.KeywordType;
 
 record KeywordName(KeywordType type) implements Name {
+    @Override
+    public int id() {
+        return type().ordinal();
+    }
+
     @Override
     public String asString() {
         return type().keyword();
@@ -2,6 +2,7 @@ package edu.kit.kastel.vads.compiler.parser.symbol;
 
 import edu.kit.kastel.vads.compiler.lexer.Identifier;
 import edu.kit.kastel.vads.compiler.lexer.Keyword;
+import edu.kit.kastel.vads.compiler.lexer.SymbolTable;
 
 public sealed interface Name permits IdentName, KeywordName {
 
@@ -10,8 +11,11 @@ public sealed interface Name permits IdentName, KeywordName {
     }
 
     static Name forIdentifier(Identifier identifier) {
-        return new IdentName(identifier.value());
+        return new IdentName(identifier.value(), identifier.id());
     }
 
+    /// {@return a dense id that is unique for this name, see [SymbolTable]}
+    int id();
+
     String asString();
 }
@@ -0,0 +1,51 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+import edu.kit.kastel.vads.compiler.parser.ast.AstKind;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+
+import java.util.List;
+
+/// An analysis that gets all nodes of a tree in postorder from a [TreeWalker].
+/// Instead of one method per node type, implementations handle the nodes they are interested in
+/// with a single pattern-matching switch over the sealed [Tree] hierarchy, and keep their state in fields.
+/// Functions in flat form are analyzed the same way, with a switch over the [AstKind] of each node.
+public interface PostorderAnalysis {
+
+    void visit(Tree tree);
+
+    /// Visits a node of a function in flat form, like [#visit(Tree)] visits the record of the node.
+    void visit(AstArena arena, int node);
+
+    /// Called before the statements of a block are visited, the block itself is visited afterward.
+    /// This allows analyses to track scopes. Does nothing by default.
+    default void enterBlock() {
+    }
+
+    /// {@return an analysis that passes each node to all given analyses, in order}
+    static PostorderAnalysis all(List<PostorderAnalysis> analyses) {
+        PostorderAnalysis[] parts = analyses.toArray(PostorderAnalysis[]::new);
+        return new PostorderAnalysis() {
+            @Override
+            public void visit(Tree tree) {
+                for (PostorderAnalysis part : parts) {
+                    part.visit(tree);
+                }
+            }
+
+            @Override
+            public void visit(AstArena arena, int node) {
+                for (PostorderAnalysis part : parts) {
+                    part.visit(arena, node);
+                }
+            }
+
+            @Override
+            public void enterBlock() {
+                for (PostorderAnalysis part : parts) {
+                    part.enterBlock();
+                }
+            }
+        };
+    }
+}
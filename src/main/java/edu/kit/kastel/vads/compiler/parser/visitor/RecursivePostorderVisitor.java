@@ -12,10 +12,20 @@ import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
 import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
 import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
-import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /// A visitor that traverses a tree in postorder
+///
+/// The traversal keeps an explicit stack of the nodes whose children are being visited,
+/// so arbitrarily deep trees do not overflow the call stack.
+/// The children of a node get the data of the node, accumulated with the result of the previous child.
+/// Only the statements of a block chain the accumulated data from one statement to the next.
+/// Before the statements of a block are visited, [Visitor#enterBlock] is called.
 /// @param <T> a type for additional data
 /// @param <R> a type for a return type
 public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
@@ -27,57 +37,32 @@ public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
 
     @Override
     public R visit(AssignmentTree assignmentTree, T data) {
-        R r = assignmentTree.lValue().accept(this, data);
-        r = assignmentTree.expression().accept(this, accumulate(data, r));
-        r = this.visitor.visit(assignmentTree, accumulate(data, r));
-        return r;
+        return traverse(assignmentTree, data);
     }
 
     @Override
     public R visit(BinaryOperationTree binaryOperationTree, T data) {
-        R r = binaryOperationTree.lhs().accept(this, data);
-        r = binaryOperationTree.rhs().accept(this, accumulate(data, r));
-        r = this.visitor.visit(binaryOperationTree, accumulate(data, r));
-        return r;
+        return traverse(binaryOperationTree, data);
     }
 
     @Override
     public R visit(BlockTree blockTree, T data) {
-        R r;
-        T d = data;
-        for (StatementTree statement : blockTree.statements()) {
-            r = statement.accept(this, d);
-            d = accumulate(d, r);
-        }
-        r = this.visitor.visit(blockTree, d);
-        return r;
+        return traverse(blockTree, data);
     }
 
     @Override
     public R visit(DeclarationTree declarationTree, T data) {
-        R r = declarationTree.type().accept(this, data);
-        r = declarationTree.name().accept(this, accumulate(data, r));
-        if (declarationTree.initializer() != null) {
-            r = declarationTree.initializer().accept(this, accumulate(data, r));
-        }
-        r = this.visitor.visit(declarationTree, accumulate(data, r));
-        return r;
+        return traverse(declarationTree, data);
     }
 
     @Override
     public R visit(FunctionTree functionTree, T data) {
-        R r = functionTree.returnType().accept(this, data);
-        r = functionTree.name().accept(this, accumulate(data, r));
-        r = functionTree.body().accept(this, accumulate(data, r));
-        r = this.visitor.visit(functionTree, accumulate(data, r));
-        return r;
+        return traverse(functionTree, data);
     }
 
     @Override
     public R visit(IdentExpressionTree identExpressionTree, T data) {
-        R r = identExpressionTree.name().accept(this, data);
-        r = this.visitor.visit(identExpressionTree, accumulate(data, r));
-        return r;
+        return traverse(identExpressionTree, data);
     }
 
     @Override
@@ -87,9 +72,7 @@ public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
 
     @Override
     public R visit(LValueIdentTree lValueIdentTree, T data) {
-        R r = lValueIdentTree.name().accept(this, data);
-        r = this.visitor.visit(lValueIdentTree, accumulate(data, r));
-        return r;
+        return traverse(lValueIdentTree, data);
     }
 
     @Override
@@ -99,28 +82,17 @@ public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
 
     @Override
     public R visit(NegateTree negateTree, T data) {
-        R r = negateTree.expression().accept(this, data);
-        r = this.visitor.visit(negateTree, accumulate(data, r));
-        return r;
+        return traverse(negateTree, data);
     }
 
     @Override
     public R visit(ProgramTree programTree, T data) {
-        R r;
-        T d = data;
-        for (FunctionTree tree : programTree.topLevelTrees()) {
-            r = tree.accept(this, d);
-            d = accumulate(data, r);
-        }
-        r = this.visitor.visit(programTree, d);
-        return r;
+        return traverse(programTree, data);
     }
 
     @Override
     public R visit(ReturnTree returnTree, T data) {
-        R r = returnTree.expression().accept(this, data);
-        r = this.visitor.visit(returnTree, accumulate(data, r));
-        return r;
+        return traverse(returnTree, data);
     }
 
     @Override
@@ -131,4 +103,100 @@ public class RecursivePostorderVisitor<T, R> implements Visitor<T, R> {
     protected T accumulate(T data, R value) {
         return data;
     }
+
+    private R traverse(Tree root, T data) {
+        // frames are reused for all nodes at the same depth
+        List<Frame<T>> frames = new ArrayList<>();
+        frames.add(new Frame<>(root, data));
+        enter(root, data);
+        int depth = 0;
+        while (true) {
+            Frame<T> frame = frames.get(depth);
+            Tree child = child(frame.tree, frame.nextChild);
+            if (child != null) {
+                frame.nextChild++;
+                depth++;
+                if (depth == frames.size()) {
+                    frames.add(new Frame<>(child, frame.childData));
+                } else {
+                    frames.get(depth).reset(child, frame.childData);
+                }
+                enter(child, frame.childData);
+                continue;
+            }
+            R result = frame.tree.accept(this.visitor, frame.childData);
+            if (depth == 0) {
+                return result;
+            }
+            depth--;
+            Frame<T> parent = frames.get(depth);
+            T base = parent.tree instanceof BlockTree ? parent.childData : parent.data;
+            parent.childData = accumulate(base, result);
+        }
+    }
+
+    private void enter(Tree tree, T data) {
+        if (tree instanceof BlockTree) {
+            this.visitor.enterBlock(data);
+        }
+    }
+
+    /// {@return the child at the given index, or `null` if there are no more children}
+    static @Nullable Tree child(Tree tree, int index) {
+        return switch (tree) {
+            case AssignmentTree assignment -> switch (index) {
+                case 0 -> assignment.lValue();
+                case 1 -> assignment.expression();
+                default -> null;
+            };
+            case BinaryOperationTree binary -> switch (index) {
+                case 0 -> binary.lhs();
+                case 1 -> binary.rhs();
+                default -> null;
+            };
+            case BlockTree block -> index < block.statements().size() ? block.statements().get(index) : null;
+            case DeclarationTree declaration -> switch (index) {
+                case 0 -> declaration.type();
+                case 1 -> declaration.name();
+                case 2 -> declaration.initializer();
+                default -> null;
+            };
+            case FunctionTree function -> switch (index) {
+                case 0 -> function.returnType();
+                case 1 -> function.name();
+                case 2 -> function.body();
+                default -> null;
+            };
+            case IdentExpressionTree identExpression -> index == 0 ? identExpression.name() : null;
+            case LValueIdentTree lValueIdent -> index == 0 ? lValueIdent.name() : null;
+            case NegateTree negate -> index == 0 ? negate.expression() : null;
+            case ProgramTree program ->
+                index < program.topLevelTrees().size() ? program.topLevelTrees().get(index) : null;
+            case ReturnTree returnTree -> index == 0 ? returnTree.expression() : null;
+            case LiteralTree _, NameTree _, TypeTree _ -> null;
+        };
+    }
+
+    /// A node whose children are being visited.
+    private static final class Frame<T> {
+        private Tree tree;
+        // the data passed to the node
+        private T data;
+        // the data for the next child, or for the node itself once all children are visited
+        private T childData;
+        private int nextChild;
+
+        Frame(Tree tree, T data) {
+            this.tree = tree;
+            this.data = data;
+            this.childData = data;
+        }
+
+        void reset(Tree tree, T data) {
+            this.tree = tree;
+            this.data = data;
+            this.childData = data;
+            this.nextChild = 0;
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+import edu.kit.kastel.vads.compiler.parser.ast.AstKind;
+import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/// Walks trees in postorder and hands every node to a [PostorderAnalysis].
+///
+/// Trees are walked with an explicit stack and arenas with a linear scan,
+/// so arbitrarily deep trees do not overflow the call stack.
+/// Each node goes through a single interface call, analyses dispatch on the node type themselves.
+public final class TreeWalker {
+
+    private TreeWalker() {
+
+    }
+
+    /// Walks the tree, visiting the children of each node in source order before the node.
+    public static void walk(Tree root, PostorderAnalysis analysis) {
+        // the path from the root to the current node, with the index of the next child to descend into
+        @Nullable Tree[] path = new Tree[16];
+        int[] nextChild = new int[16];
+        int depth = 0;
+        path[0] = root;
+        enter(root, analysis);
+        while (depth >= 0) {
+            Tree tree = path[depth];
+            assert tree != null;
+            @Nullable Tree child = RecursivePostorderVisitor.child(tree, nextChild[depth]++);
+            if (child == null) {
+                analysis.visit(tree);
+                path[depth--] = null;
+                continue;
+            }
+            if (++depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+                nextChild = Arrays.copyOf(nextChild, depth * 2);
+            }
+            path[depth] = child;
+            nextChild[depth] = 0;
+            enter(child, analysis);
+        }
+    }
+
+    private static void enter(Tree tree, PostorderAnalysis analysis) {
+        if (tree instanceof BlockTree) {
+            analysis.enterBlock();
+        }
+    }
+
+    /// Walks the function in the arena, visiting the same nodes in the same order as [#walk(Tree, PostorderAnalysis)]
+    /// on the function tree.
+    ///
+    /// The arena is scanned linearly and each node is handed over by its index, see
+    /// [PostorderAnalysis#visit(AstArena, int)]. [PostorderAnalysis#enterBlock] is called right before the first
+    /// node of each block.
+    public static void walk(AstArena arena, PostorderAnalysis analysis) {
+        int[] blockStarts = blockStarts(arena);
+        int nextBlock = 0;
+        for (int node = 0; node < arena.size(); node++) {
+            while (nextBlock < blockStarts.length && blockStarts[nextBlock] == node) {
+                analysis.enterBlock();
+                nextBlock++;
+            }
+            analysis.visit(arena, node);
+        }
+    }
+
+    /// {@return the sorted indices of the first nodes of all blocks}
+    private static int[] blockStarts(AstArena arena) {
+        int[] starts = new int[8];
+        int count = 0;
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.kind(node) == AstKind.BLOCK) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = arena.start(node);
+            }
+        }
+        starts = Arrays.copyOf(starts, count);
+        Arrays.sort(starts);
+        return starts;
+    }
+}
@@ -41,4 +41,9 @@ public interface Visitor<T, R> {
     R visit(ReturnTree returnTree, T data);
 
     R visit(TypeTree typeTree, T data);
+
+    /// Called by traversals before the statements of a block are visited, the block itself is visited afterward.
+    /// This allows visitors to track scopes. Does nothing by default.
+    default void enterBlock(T data) {
+    }
 }
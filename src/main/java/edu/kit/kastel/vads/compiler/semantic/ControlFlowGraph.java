@@ -0,0 +1,208 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/// The control flow graph of the statements of a function, built while its statements are visited in order.
+///
+/// Blocks are maximal sequences of statements that are executed together.
+/// Each block stores the variable slots it reads and writes as a sequence of events, in execution order.
+/// Events are always appended to the block that was created last, blocks get successors through [#addEdge].
+/// Block `0` is the entry. A return ends its block without successors, the code after it starts a new block.
+final class ControlFlowGraph {
+    private static final int DEFINE_FLAG = 1;
+
+    private int blockCount;
+    // the first event of each block, the events of the last block run until eventCount
+    private int[] eventStarts;
+    private int[] events;
+    private @Nullable NameTree[] eventNames;
+    private int eventCount;
+    private int[] edgeSources;
+    private int[] edgeTargets;
+    private int edgeCount;
+    // successors and predecessors in compressed form, computed by finish
+    private int[] successorStarts = new int[0];
+    private int[] successors = new int[0];
+    private int[] predecessorStarts = new int[0];
+    private int[] predecessors = new int[0];
+
+    ControlFlowGraph() {
+        this.eventStarts = new int[8];
+        this.events = new int[64];
+        this.eventNames = new NameTree[64];
+        this.edgeSources = new int[8];
+        this.edgeTargets = new int[8];
+        clear();
+    }
+
+    /// Removes all blocks and events, leaving only an empty entry block.
+    void clear() {
+        Arrays.fill(this.eventNames, 0, this.eventCount, null);
+        this.blockCount = 0;
+        this.eventCount = 0;
+        this.edgeCount = 0;
+        newBlock();
+    }
+
+    /// {@return a new block, that gets all events from now on}
+    int newBlock() {
+        if (this.blockCount == this.eventStarts.length) {
+            this.eventStarts = Arrays.copyOf(this.eventStarts, this.blockCount * 2);
+        }
+        this.eventStarts[this.blockCount] = this.eventCount;
+        return this.blockCount++;
+    }
+
+    /// {@return the block that gets the events}
+    int currentBlock() {
+        return this.blockCount - 1;
+    }
+
+    /// Adds control flow from the end of `source` to the start of `target`.
+    /// L1 functions are straight-line code, so this is only needed once branches and loops are added.
+    void addEdge(int source, int target) {
+        if (this.edgeCount == this.edgeSources.length) {
+            this.edgeSources = Arrays.copyOf(this.edgeSources, this.edgeCount * 2);
+            this.edgeTargets = Arrays.copyOf(this.edgeTargets, this.edgeCount * 2);
+        }
+        this.edgeSources[this.edgeCount] = source;
+        this.edgeTargets[this.edgeCount] = target;
+        this.edgeCount++;
+    }
+
+    /// Records that the current block reads the variable in the given slot.
+    void use(int slot, NameTree name) {
+        addEvent(slot << 1, name);
+    }
+
+    /// Records that the current block writes the variable in the given slot.
+    void define(int slot, NameTree name) {
+        addEvent(slot << 1 | DEFINE_FLAG, name);
+    }
+
+    /// Ends the current block with a return, the following statements are unreachable from it.
+    void returnFromBlock() {
+        newBlock();
+    }
+
+    private void addEvent(int event, NameTree name) {
+        if (this.eventCount == this.events.length) {
+            this.events = Arrays.copyOf(this.events, this.eventCount * 2);
+            this.eventNames = Arrays.copyOf(this.eventNames, this.eventCount * 2);
+        }
+        this.events[this.eventCount] = event;
+        this.eventNames[this.eventCount] = name;
+        this.eventCount++;
+    }
+
+    /// Computes the successors and predecessors of all blocks from the edges.
+    void finish() {
+        this.successorStarts = new int[this.blockCount + 1];
+        this.predecessorStarts = new int[this.blockCount + 1];
+        for (int edge = 0; edge < this.edgeCount; edge++) {
+            this.successorStarts[this.edgeSources[edge] + 1]++;
+            this.predecessorStarts[this.edgeTargets[edge] + 1]++;
+        }
+        for (int block = 0; block < this.blockCount; block++) {
+            this.successorStarts[block + 1] += this.successorStarts[block];
+            this.predecessorStarts[block + 1] += this.predecessorStarts[block];
+        }
+        this.successors = new int[this.edgeCount];
+        this.predecessors = new int[this.edgeCount];
+        int[] successorFill = Arrays.copyOf(this.successorStarts, this.blockCount);
+        int[] predecessorFill = Arrays.copyOf(this.predecessorStarts, this.blockCount);
+        for (int edge = 0; edge < this.edgeCount; edge++) {
+            int source = this.edgeSources[edge];
+            int target = this.edgeTargets[edge];
+            this.successors[successorFill[source]++] = target;
+            this.predecessors[predecessorFill[target]++] = source;
+        }
+    }
+
+    int blockCount() {
+        return this.blockCount;
+    }
+
+    int successorStart(int block) {
+        return this.successorStarts[block];
+    }
+
+    int successorEnd(int block) {
+        return this.successorStarts[block + 1];
+    }
+
+    int successor(int index) {
+        return this.successors[index];
+    }
+
+    int predecessorStart(int block) {
+        return this.predecessorStarts[block];
+    }
+
+    int predecessorEnd(int block) {
+        return this.predecessorStarts[block + 1];
+    }
+
+    int predecessor(int index) {
+        return this.predecessors[index];
+    }
+
+    int eventStart(int block) {
+        return this.eventStarts[block];
+    }
+
+    int eventEnd(int block) {
+        return block == this.blockCount - 1 ? this.eventCount : this.eventStarts[block + 1];
+    }
+
+    static boolean isDefinition(int event) {
+        return (event & DEFINE_FLAG) != 0;
+    }
+
+    static int slot(int event) {
+        return event >>> 1;
+    }
+
+    int event(int index) {
+        return this.events[index];
+    }
+
+    NameTree eventName(int index) {
+        NameTree name = this.eventNames[index];
+        assert name != null;
+        return name;
+    }
+
+    /// {@return the blocks reachable from the entry in reverse postorder}
+    int[] reversePostorder() {
+        int[] order = new int[this.blockCount];
+        int orderStart = this.blockCount;
+        boolean[] visited = new boolean[this.blockCount];
+        // blocks on the current path, with the index of the next successor to look at
+        int[] stack = new int[this.blockCount];
+        int[] nextSuccessor = new int[this.blockCount];
+        int depth = 0;
+        stack[0] = 0;
+        nextSuccessor[0] = successorStart(0);
+        visited[0] = true;
+        while (depth >= 0) {
+            int block = stack[depth];
+            if (nextSuccessor[depth] < successorEnd(block)) {
+                int successor = this.successors[nextSuccessor[depth]++];
+                if (!visited[successor]) {
+                    visited[successor] = true;
+                    depth++;
+                    stack[depth] = successor;
+                    nextSuccessor[depth] = successorStart(successor);
+                }
+            } else {
+                order[--orderStart] = block;
+                depth--;
+            }
+        }
+        return Arrays.copyOfRange(order, orderStart, this.blockCount);
+    }
+}
@@ -0,0 +1,121 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+
+import java.util.Arrays;
+
+/// Checks that variables are assigned on every path before they are read.
+///
+/// This is a forward must-analysis over a [ControlFlowGraph].
+/// The assigned variables at the end of each block are a bit vector over the variable slots,
+/// all bit vectors are stored in one `long[]`.
+/// Blocks are processed from a worklist in reverse postorder,
+/// so straight-line code and code without loops needs a single pass.
+/// Code that cannot be reached is not checked, as everything counts as assigned there.
+final class DefiniteAssignment {
+    private final ControlFlowGraph graph;
+    // the slot of bit 0, the slots of earlier functions are not tracked
+    private final int firstSlot;
+    private final int words;
+    // the assigned variables at the end of each block
+    private final long[] out;
+
+    private DefiniteAssignment(ControlFlowGraph graph, int firstSlot, int slotEnd) {
+        this.graph = graph;
+        this.firstSlot = firstSlot;
+        this.words = Math.max(1, (slotEnd - firstSlot + 63) >>> 6);
+        this.out = new long[graph.blockCount() * this.words];
+    }
+
+    /// Checks the graph, which must be finished already.
+    /// @param order the reachable blocks of the graph in reverse postorder
+    /// @param firstSlot the first slot that is declared in the function of the graph
+    /// @param slotEnd the slot after the last slot that is declared in the function of the graph
+    static void check(ControlFlowGraph graph, int[] order, int firstSlot, int slotEnd) {
+        DefiniteAssignment analysis = new DefiniteAssignment(graph, firstSlot, slotEnd);
+        analysis.solve(order);
+        analysis.verify(order);
+    }
+
+    private void solve(int[] order) {
+        // everything is assigned until proven otherwise, which is neutral for the intersection of predecessors
+        Arrays.fill(this.out, -1L);
+        int[] orderIndex = new int[this.graph.blockCount()];
+        Arrays.fill(orderIndex, -1);
+        for (int i = 0; i < order.length; i++) {
+            orderIndex[order[i]] = i;
+        }
+        // the worklist is a bit vector over positions in the reverse postorder, the lowest position comes first
+        long[] worklist = new long[(order.length + 63) >>> 6];
+        for (int i = 0; i < order.length; i++) {
+            worklist[i >>> 6] |= 1L << i;
+        }
+        long[] current = new long[this.words];
+        int word = 0;
+        while (word < worklist.length) {
+            if (worklist[word] == 0) {
+                word++;
+                continue;
+            }
+            int position = (word << 6) + Long.numberOfTrailingZeros(worklist[word]);
+            worklist[word] &= worklist[word] - 1;
+            int block = order[position];
+            in(block, current);
+            transfer(block, current);
+            if (!Arrays.equals(current, 0, this.words, this.out, block * this.words, (block + 1) * this.words)) {
+                System.arraycopy(current, 0, this.out, block * this.words, this.words);
+                for (int i = this.graph.successorStart(block); i < this.graph.successorEnd(block); i++) {
+                    int successor = orderIndex[this.graph.successor(i)];
+                    worklist[successor >>> 6] |= 1L << successor;
+                    // continue with the earliest block that changed, which may be a loop header before this one
+                    word = Math.min(word, successor >>> 6);
+                }
+            }
+        }
+    }
+
+    /// Replays the events of all reachable blocks, failing at the first read of a variable that is not assigned.
+    private void verify(int[] order) {
+        long[] current = new long[this.words];
+        for (int block : order) {
+            in(block, current);
+            for (int i = this.graph.eventStart(block); i < this.graph.eventEnd(block); i++) {
+                int event = this.graph.event(i);
+                int bit = ControlFlowGraph.slot(event) - this.firstSlot;
+                if (ControlFlowGraph.isDefinition(event)) {
+                    current[bit >>> 6] |= 1L << bit;
+                } else if ((current[bit >>> 6] & 1L << bit) == 0) {
+                    NameTree name = this.graph.eventName(i);
+                    throw new SemanticException("Variable " + name + " must be initialized before use");
+                }
+            }
+        }
+    }
+
+    /// Computes the assigned variables at the start of the block into `result`.
+    private void in(int block, long[] result) {
+        if (block == 0) {
+            // nothing is assigned at the entry, even if it is a loop header
+            Arrays.fill(result, 0);
+            return;
+        }
+        Arrays.fill(result, -1L);
+        for (int i = this.graph.predecessorStart(block); i < this.graph.predecessorEnd(block); i++) {
+            int offset = this.graph.predecessor(i) * this.words;
+            for (int w = 0; w < this.words; w++) {
+                result[w] &= this.out[offset + w];
+            }
+        }
+    }
+
+    /// Adds the variables assigned in the block to `assigned`.
+    private void transfer(int block, long[] assigned) {
+        for (int i = this.graph.eventStart(block); i < this.graph.eventEnd(block); i++) {
+            int event = this.graph.event(i);
+            if (ControlFlowGraph.isDefinition(event)) {
+                int bit = ControlFlowGraph.slot(event) - this.firstSlot;
+                assigned[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+import edu.kit.kastel.vads.compiler.parser.ast.AstKind;
+import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
+import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import edu.kit.kastel.vads.compiler.parser.visitor.PostorderAnalysis;
+
+/// Checks that variables are
+/// - declared before assignment
+/// - not declared twice
+/// - assigned on every path before they are referenced
+///
+/// and that functions return on every path.
+/// The nodes are reported either by a [edu.kit.kastel.vads.compiler.parser.visitor.TreeWalker]
+/// or, for translations that do not build a tree, through an [InlineAnalysis] as they are parsed.
+/// The statements of each function are collected into a [ControlFlowGraph] while they are visited,
+/// the path-sensitive checks run on that graph once the function is complete.
+///
+/// Statements after a return cannot be reached, so every variable counts as assigned there,
+/// but names must still be declared. A function returns if the end of its body cannot be reached.
+class FlowAnalysis implements PostorderAnalysis {
+    // the values are the names in the declarations
+    private final Namespace<NameTree> namespace = new Namespace<>();
+    private final ControlFlowGraph graph = new ControlFlowGraph();
+    // the first slot that is declared in the current function
+    private int firstSlot;
+
+    @Override
+    public void enterBlock() {
+        this.namespace.enterScope();
+    }
+
+    @Override
+    public void visit(Tree tree) {
+        switch (tree) {
+            case IdentExpressionTree(var name) -> use(name);
+            case AssignmentTree(LValueIdentTree(var name), var operator, _) -> assign(name, operator.type());
+            case DeclarationTree(_, var name, var initializer) -> declare(name, initializer != null);
+            case ReturnTree _ -> returnFromBlock();
+            case BlockTree _ -> exitBlock();
+            case FunctionTree function -> finishFunction(function.name());
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void visit(AstArena arena, int node) {
+        switch (arena.kind(node)) {
+            case AstKind.IDENT_EXPRESSION -> use(name(arena, node - 1));
+            case AstKind.ASSIGNMENT -> {
+                int lValue = arena.previousSibling(node - 1);
+                assign(name(arena, lValue - 1), arena.operatorType(node));
+            }
+            case AstKind.DECLARATION -> {
+                int initializer = arena.initializer(node);
+                int name = initializer == -1 ? node - 1 : arena.previousSibling(initializer);
+                declare(name(arena, name), initializer != -1);
+            }
+            case AstKind.RETURN -> returnFromBlock();
+            case AstKind.BLOCK -> exitBlock();
+            case AstKind.FUNCTION -> finishFunction(name(arena, arena.previousSibling(node - 1)));
+            default -> {
+            }
+        }
+    }
+
+    /// {@return the record of a name node}
+    /// Names are the only records built for an arena, the graph keeps them for its diagnostics.
+    private static NameTree name(AstArena arena, int node) {
+        return new NameTree(arena.name(node), arena.span(node));
+    }
+
+    void exitBlock() {
+        this.namespace.exitScope();
+    }
+
+    void use(NameTree name) {
+        int slot = this.namespace.lookup(name);
+        checkDeclaredBeforeUse(name, slot);
+        this.graph.use(slot, name);
+    }
+
+    void assign(NameTree name, Operator.OperatorType operator) {
+        int slot = this.namespace.lookup(name);
+        if (operator == Operator.OperatorType.ASSIGN) {
+            checkDeclared(name, slot);
+        } else {
+            checkDeclaredBeforeUse(name, slot);
+            this.graph.use(slot, name);
+        }
+        this.graph.define(slot, name);
+    }
+
+    void declare(NameTree name, boolean initialized) {
+        checkUndeclared(name, this.namespace.lookup(name));
+        int slot = this.namespace.declare(name, name);
+        if (initialized) {
+            this.graph.define(slot, name);
+        }
+    }
+
+    private static void checkDeclared(NameTree name, int slot) {
+        if (slot == -1) {
+            throw new SemanticException("Variable " + name + " must be declared before assignment");
+        }
+    }
+
+    private static void checkDeclaredBeforeUse(NameTree name, int slot) {
+        if (slot == -1) {
+            throw new SemanticException("Variable " + name + " must be initialized before use");
+        }
+    }
+
+    private static void checkUndeclared(NameTree name, int slot) {
+        // shadowing is not allowed, so any visible declaration is a conflict
+        if (slot != -1) {
+            throw new SemanticException("Variable " + name + " is already declared");
+        }
+    }
+
+    void returnFromBlock() {
+        this.graph.returnFromBlock();
+    }
+
+    /// {@return whether the statement that is visited next can be executed}
+    /// No edges are added for L1, so only the entry block is reachable, which ends with the first return.
+    boolean reachable() {
+        return this.graph.currentBlock() == 0;
+    }
+
+    void finishFunction(NameTree function) {
+        ControlFlowGraph graph = this.graph;
+        graph.finish();
+        int[] order = graph.reversePostorder();
+        DefiniteAssignment.check(graph, order, this.firstSlot, this.namespace.slotCount());
+        // the block that is open at the end of the body falls off the end of the function
+        for (int block : order) {
+            if (block == graph.currentBlock()) {
+                throw new SemanticException("function " + function + " does not return");
+            }
+        }
+        graph.clear();
+        this.firstSlot = this.namespace.slotCount();
+    }
+}
@@ -0,0 +1,67 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
+
+/// Runs the checks of [SemanticAnalysis] while the constructs of a function are reported in evaluation order,
+/// for translations that do not build a tree.
+///
+/// The constructs are passed to the same [FlowAnalysis] and literal check that [SemanticAnalysis] uses,
+/// in the order in which a [edu.kit.kastel.vads.compiler.parser.visitor.TreeWalker] visits their trees,
+/// so both report the same first error of a function.
+public final class InlineAnalysis {
+    private final FlowAnalysis flow = new FlowAnalysis();
+    private @Nullable NameTree function;
+
+    public void beginFunction(Identifier name) {
+        this.function = name(name);
+    }
+
+    public void endFunction() {
+        assert this.function != null : "no function begun";
+        this.flow.finishFunction(this.function);
+        this.function = null;
+    }
+
+    public void enterBlock() {
+        this.flow.enterBlock();
+    }
+
+    public void exitBlock() {
+        this.flow.exitBlock();
+    }
+
+    /// {@return whether the current statement can be executed, which is until the first return}
+    public boolean reachable() {
+        return this.flow.reachable();
+    }
+
+    public void literal(NumberLiteral literal) {
+        IntegerLiteralRangeAnalysis.checkRange(literal.value(), literal.overflows());
+    }
+
+    public void read(Identifier name) {
+        this.flow.use(name(name));
+    }
+
+    public void assign(Identifier name, OperatorType operator) {
+        this.flow.assign(name(name), operator);
+    }
+
+    public void declare(Identifier name, boolean initialized) {
+        this.flow.declare(name(name), initialized);
+    }
+
+    public void returnFromFunction() {
+        this.flow.returnFromBlock();
+    }
+
+    /// {@return the name as the tree a parser would build for it}
+    private static NameTree name(Identifier identifier) {
+        return new NameTree(Name.forIdentifier(identifier), identifier.span());
+    }
+}
@@ -1,17 +1,30 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+import edu.kit.kastel.vads.compiler.parser.ast.AstKind;
 import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.NoOpVisitor;
-import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import edu.kit.kastel.vads.compiler.parser.visitor.PostorderAnalysis;
 
-public class IntegerLiteralRangeAnalysis implements NoOpVisitor<Namespace<Void>> {
+public class IntegerLiteralRangeAnalysis implements PostorderAnalysis {
 
     @Override
-    public Unit visit(LiteralTree literalTree, Namespace<Void> data) {
-      literalTree.parseValue()
-          .orElseThrow(
-              () -> new SemanticException("invalid integer literal " + literalTree.value())
-          );
-        return NoOpVisitor.super.visit(literalTree, data);
+    public void visit(Tree tree) {
+        if (tree instanceof LiteralTree literal) {
+            checkRange(literal.value(), literal.overflows());
+        }
+    }
+
+    @Override
+    public void visit(AstArena arena, int node) {
+        if (arena.kind(node) == AstKind.LITERAL) {
+            checkRange(arena.literalText(node), arena.literalOverflows(node));
+        }
+    }
+
+    static void checkRange(String value, boolean overflows) {
+        if (overflows) {
+            throw new SemanticException("invalid integer literal " + value);
+        }
     }
 }
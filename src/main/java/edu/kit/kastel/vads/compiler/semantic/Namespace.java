@@ -4,23 +4,149 @@ import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
 import org.jspecify.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.BinaryOperator;
+import java.util.Arrays;
 
+/// A scoped symbol table.
+/// Each declaration gets a slot, numbered densely in declaration order and never reused,
+/// so per-variable state can be kept in arrays indexed by slot.
+/// Names are resolved to slots through an open-addressing hash table keyed by [name id][Name#id()],
+/// so the table grows with the names used here rather than with all names of the program.
+///
+/// Scopes are marks on a stack of the slots that are currently visible.
+/// Leaving a scope pops the slots declared in it and restores the slots they shadowed.
 public class Namespace<T> {
+    private static final int NONE = -1;
 
-    private final Map<Name, T> content;
+    // name id -> visible slot, by linear probing, at most half full
+    // entries are never removed, a name that goes out of scope is bound to NONE
+    private int[] bindingIds;
+    private int[] bindings;
+    private int bindingMask;
+    private int bindingCount;
+    // slot -> name id, and the slot that was visible for the name before
+    private int[] slotNames;
+    private int[] shadowed;
+    private @Nullable Object[] values;
+    private int slotCount;
+    // the visible slots, and for each open scope the size of that stack when it was entered
+    private int[] visible;
+    private int visibleCount;
+    private int[] scopeMarks;
+    private int scopeCount;
 
     public Namespace() {
-        this.content = new HashMap<>();
+        this.bindingIds = new int[16];
+        Arrays.fill(this.bindingIds, NONE);
+        this.bindings = new int[16];
+        this.bindingMask = 15;
+        this.slotNames = new int[16];
+        this.shadowed = new int[16];
+        this.values = new Object[16];
+        this.visible = new int[16];
+        this.scopeMarks = new int[4];
     }
 
-    public void put(NameTree name, T value, BinaryOperator<T> merger) {
-        this.content.merge(name.name(), value, merger);
+    public void enterScope() {
+        if (this.scopeCount == this.scopeMarks.length) {
+            this.scopeMarks = Arrays.copyOf(this.scopeMarks, this.scopeCount * 2);
+        }
+        this.scopeMarks[this.scopeCount++] = this.visibleCount;
     }
 
-    public @Nullable T get(NameTree name) {
-        return this.content.get(name.name());
+    public void exitScope() {
+        assert this.scopeCount > 0 : "no scope to exit";
+        int mark = this.scopeMarks[--this.scopeCount];
+        while (this.visibleCount > mark) {
+            int slot = this.visible[--this.visibleCount];
+            this.bindings[bindingIndex(this.slotNames[slot])] = this.shadowed[slot];
+        }
+    }
+
+    /// Declares the name in the innermost scope, shadowing a visible declaration of the same name.
+    /// @return the slot of the declaration
+    public int declare(NameTree name, T value) {
+        return declare(name.name(), value);
+    }
+
+    /// Declares the name in the innermost scope, see [#declare(NameTree, Object)].
+    public int declare(Name name, T value) {
+        int id = name.id();
+        int binding = bindingIndex(id);
+        if (this.bindingIds[binding] == NONE) {
+            if (2 * (this.bindingCount + 1) > this.bindingIds.length) {
+                growBindings();
+                binding = bindingIndex(id);
+            }
+            this.bindingIds[binding] = id;
+            this.bindings[binding] = NONE;
+            this.bindingCount++;
+        }
+        int slot = this.slotCount++;
+        if (slot == this.slotNames.length) {
+            this.slotNames = Arrays.copyOf(this.slotNames, slot * 2);
+            this.shadowed = Arrays.copyOf(this.shadowed, slot * 2);
+            this.values = Arrays.copyOf(this.values, slot * 2);
+        }
+        if (this.visibleCount == this.visible.length) {
+            this.visible = Arrays.copyOf(this.visible, this.visibleCount * 2);
+        }
+        this.slotNames[slot] = id;
+        this.shadowed[slot] = this.bindings[binding];
+        this.values[slot] = value;
+        this.bindings[binding] = slot;
+        this.visible[this.visibleCount++] = slot;
+        return slot;
+    }
+
+    /// {@return the slot of the visible declaration of the name, or `-1` if there is none}
+    public int lookup(NameTree name) {
+        return lookup(name.name());
+    }
+
+    /// {@return the slot of the visible declaration of the name, or `-1` if there is none}
+    public int lookup(Name name) {
+        int binding = bindingIndex(name.id());
+        return this.bindingIds[binding] == NONE ? NONE : this.bindings[binding];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int slot) {
+        return (T) this.values[slot];
+    }
+
+    public void set(int slot, T value) {
+        this.values[slot] = value;
+    }
+
+    /// {@return the number of declarations so far, which is the next slot}
+    public int slotCount() {
+        return this.slotCount;
+    }
+
+    /// {@return the index of the entry for the name id, or of the empty entry where it belongs}
+    private int bindingIndex(int id) {
+        // spread the dense ids over the table
+        int hash = id * 0x9E3779B9;
+        int i = (hash ^ hash >>> 16) & this.bindingMask;
+        while (this.bindingIds[i] != NONE && this.bindingIds[i] != id) {
+            i = (i + 1) & this.bindingMask;
+        }
+        return i;
+    }
+
+    private void growBindings() {
+        int[] oldIds = this.bindingIds;
+        int[] oldBindings = this.bindings;
+        this.bindingIds = new int[oldIds.length * 2];
+        Arrays.fill(this.bindingIds, NONE);
+        this.bindings = new int[oldIds.length * 2];
+        this.bindingMask = this.bindingIds.length - 1;
+        for (int j = 0; j < oldIds.length; j++) {
+            if (oldIds[j] != NONE) {
+                int i = bindingIndex(oldIds[j]);
+                this.bindingIds[i] = oldIds[j];
+                this.bindings[i] = oldBindings[j];
+            }
+        }
     }
 }
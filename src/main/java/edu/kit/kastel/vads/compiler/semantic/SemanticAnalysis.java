@@ -1,20 +1,65 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
+import edu.kit.kastel.vads.compiler.parser.ast.AstArena;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.RecursivePostorderVisitor;
+import edu.kit.kastel.vads.compiler.parser.ast.Tree;
+import edu.kit.kastel.vads.compiler.parser.visitor.PostorderAnalysis;
+import edu.kit.kastel.vads.compiler.parser.visitor.TreeWalker;
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class SemanticAnalysis {
 
-    private final ProgramTree program;
+    private final @Nullable Tree program;
+    private final List<AstArena> functions;
 
     public SemanticAnalysis(ProgramTree program) {
         this.program = program;
+        this.functions = List.of();
+    }
+
+    /// Analyzes a single function, which does not depend on the other functions of the program.
+    public SemanticAnalysis(FunctionTree function) {
+        this.program = function;
+        this.functions = List.of();
     }
 
+    /// Analyzes a program whose functions are stored in arenas, see [TreeWalker#walk(AstArena, PostorderAnalysis)].
+    public SemanticAnalysis(List<AstArena> functions) {
+        this.program = null;
+        this.functions = List.copyOf(functions);
+    }
+
+    /// Runs all analyses in a single traversal, see [PostorderAnalysis#all].
     public void analyze() {
-        this.program.accept(new RecursivePostorderVisitor<>(new IntegerLiteralRangeAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new VariableStatusAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new ReturnAnalysis()), new ReturnAnalysis.ReturnState());
+        PostorderAnalysis analyses = PostorderAnalysis.all(List.of(
+            new IntegerLiteralRangeAnalysis(),
+            new FlowAnalysis()
+        ));
+        if (this.program instanceof ProgramTree programTree) {
+            checkFunctionNames(programTree.topLevelTrees().stream().map(f -> f.name().name().asString()).toList());
+        }
+        if (this.program != null) {
+            TreeWalker.walk(this.program, analyses);
+            return;
+        }
+        for (AstArena function : this.functions) {
+            TreeWalker.walk(function, analyses);
+        }
     }
 
+    /// Checks that no two functions of a program have the same name.
+    /// The other analyses only look at one function at a time, so this has to be checked separately.
+    public static void checkFunctionNames(List<String> names) {
+        Set<String> declared = new HashSet<>();
+        for (String name : names) {
+            if (!declared.add(name)) {
+                throw new SemanticException("Function " + name + " is already declared");
+            }
+        }
+    }
 }
@@ -1,94 +0,0 @@
-package edu.kit.kastel.vads.compiler.semantic;
-
-import edu.kit.kastel.vads.compiler.lexer.Operator;
-import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.NoOpVisitor;
-import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
-import org.jspecify.annotations.Nullable;
-
-import java.util.Locale;
-
-/// Checks that variables are
-/// - declared before assignment
-/// - not declared twice
-/// - not initialized twice
-/// - assigned before referenced
-class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnalysis.VariableStatus>> {
-
-    @Override
-    public Unit visit(AssignmentTree assignmentTree, Namespace<VariableStatus> data) {
-        switch (assignmentTree.lValue()) {
-            case LValueIdentTree(var name) -> {
-                VariableStatus status = data.get(name);
-                if (assignmentTree.operator().type() == Operator.OperatorType.ASSIGN) {
-                    checkDeclared(name, status);
-                } else {
-                    checkInitialized(name, status);
-                }
-                if (status != VariableStatus.INITIALIZED) {
-                    // only update when needed, reassignment is totally fine
-                    updateStatus(data, VariableStatus.INITIALIZED, name);
-                }
-            }
-        }
-        return NoOpVisitor.super.visit(assignmentTree, data);
-    }
-
-    private static void checkDeclared(NameTree name, @Nullable VariableStatus status) {
-        if (status == null) {
-            throw new SemanticException("Variable " + name + " must be declared before assignment");
-        }
-    }
-
-    private static void checkInitialized(NameTree name, @Nullable VariableStatus status) {
-        if (status == null || status == VariableStatus.DECLARED) {
-            throw new SemanticException("Variable " + name + " must be initialized before use");
-        }
-    }
-
-    private static void checkUndeclared(NameTree name, @Nullable VariableStatus status) {
-        if (status != null) {
-            throw new SemanticException("Variable " + name + " is already declared");
-        }
-    }
-
-    @Override
-    public Unit visit(DeclarationTree declarationTree, Namespace<VariableStatus> data) {
-        checkUndeclared(declarationTree.name(), data.get(declarationTree.name()));
-        VariableStatus status = declarationTree.initializer() == null
-            ? VariableStatus.DECLARED
-            : VariableStatus.INITIALIZED;
-        updateStatus(data, status, declarationTree.name());
-        return NoOpVisitor.super.visit(declarationTree, data);
-    }
-
-    private static void updateStatus(Namespace<VariableStatus> data, VariableStatus status, NameTree name) {
-        data.put(name, status, (existing, replacement) -> {
-            if (existing.ordinal() >= replacement.ordinal()) {
-                throw new SemanticException("variable is already " + existing + ". Cannot be " + replacement + " here.");
-            }
-            return replacement;
-        });
-    }
-
-    @Override
-    public Unit visit(IdentExpressionTree identExpressionTree, Namespace<VariableStatus> data) {
-        VariableStatus status = data.get(identExpressionTree.name());
-        checkInitialized(identExpressionTree.name(), status);
-        return NoOpVisitor.super.visit(identExpressionTree, data);
-    }
-
-    enum VariableStatus {
-        DECLARED,
-        INITIALIZED;
-
-        @Override
-        public String toString() {
-            return name().toLowerCase(Locale.ROOT);
-        }
-    }
-}
@@ -4,4 +4,8 @@ import org.jspecify.annotations.NullMarked;
 module edu.kit.kastel.vads.compiler {
     requires org.jspecify;
     requires java.xml;
+    // allocation statistics, see PassManager
+    requires jdk.management;
+    // optional, see ByteScanner
+    requires static jdk.incubator.vector;
 }
\ No newline at end of file
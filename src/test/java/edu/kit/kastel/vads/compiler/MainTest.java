@@ -0,0 +1,69 @@
+package edu.kit.kastel.vads.compiler;
+
+import edu.kit.kastel.vads.compiler.Main.CompiledFunction;
+import edu.kit.kastel.vads.compiler.ir.optimize.OptimizationLevel;
+import edu.kit.kastel.vads.compiler.ir.optimize.PassManager;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.semantic.SemanticException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MainTest {
+    private final PassManager passes = new PassManager(OptimizationLevel.O3, Integer.MAX_VALUE, false);
+
+    @Test
+    void parallelCompilationMatchesSequentialCompilation() {
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            sources.add("int f" + i + "() { int x = " + i + "; int y = x * 7 + 3; "
+                + "y %= x + 1; x = -y / 2; ".repeat(i) + "return x - y; }");
+        }
+        List<FunctionTree> functions = parse(sources);
+        try (ForkJoinPool sequential = new ForkJoinPool(1); ForkJoinPool parallel = new ForkJoinPool(4)) {
+            assertEquals(code(compile(sequential, functions)), code(compile(parallel, functions)));
+        }
+    }
+
+    @Test
+    void theFirstFailingFunctionIsReported() {
+        List<String> sources = new ArrayList<>();
+        // the error of the first function is only found after its long body was analyzed
+        sources.add("int f() { int x = 0; " + "x += 1; ".repeat(20_000) + "int y; return y; }");
+        for (int i = 0; i < 8; i++) {
+            sources.add("int g" + i + "() { int z" + i + "; return z" + i + "; }");
+        }
+        List<FunctionTree> functions = parse(sources);
+        try (ForkJoinPool sequential = new ForkJoinPool(1); ForkJoinPool parallel = new ForkJoinPool(4)) {
+            SemanticException expected = assertThrows(SemanticException.class, () -> compile(sequential, functions));
+            SemanticException actual = assertThrows(SemanticException.class, () -> compile(parallel, functions));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    private List<CompiledFunction> compile(ForkJoinPool pool, List<FunctionTree> functions) {
+        return Parallel.invokeAll(pool, Main.compileTasks(functions, this.passes));
+    }
+
+    private static List<FunctionTree> parse(List<String> sources) {
+        return sources.stream()
+            .map(source -> new Parser(new TokenSource(Lexer.forString(source))).parseProgram().topLevelTrees().getFirst())
+            .toList();
+    }
+
+    private static String code(List<CompiledFunction> functions) {
+        StringBuilder code = new StringBuilder();
+        for (CompiledFunction function : functions) {
+            code.append(function.code());
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package edu.kit.kastel.vads.compiler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelTest {
+
+    @Test
+    void resultsAreInTaskOrder() {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int result = i;
+            tasks.add(() -> {
+                // the later tasks finish first
+                Thread.sleep(20 - result);
+                return result;
+            });
+            expected.add(result);
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            assertEquals(expected, Parallel.invokeAll(pool, tasks));
+        }
+    }
+
+    @Test
+    void theFirstFailingTaskIsReportedEvenIfALaterOneFailsFirst() {
+        CountDownLatch laterFailed = new CountDownLatch(1);
+        List<Callable<Integer>> tasks = List.of(
+            () -> {
+                laterFailed.await(10, TimeUnit.SECONDS);
+                throw new IllegalStateException("first");
+            },
+            () -> 1,
+            () -> {
+                laterFailed.countDown();
+                throw new IllegalStateException("third");
+            }
+        );
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> Parallel.invokeAll(pool, tasks));
+            assertEquals("first", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.LineIndex;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.SymbolTable;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.block;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphConstructorTest {
+    private final GraphConstructor constructor = new GraphConstructor(node -> node, "test");
+    private final IrGraph graph = this.constructor.graph();
+
+    @Test
+    void loopInvariantPhiIsRemovedWhenTheHeaderIsSealed() {
+        Name x = name("x");
+        Node one = this.constructor.newConstInt(1);
+        this.constructor.writeVariable(x, this.graph.startBlock(), one);
+        Block header = block(this.graph, this.graph.startBlock());
+        Node phi = this.constructor.readVariable(x, header);
+        assertInstanceOf(Phi.class, phi);
+
+        Block body = block(this.graph, header);
+        this.constructor.sealBlock(body);
+        header.addPredecessor(new Phi(body));
+        this.constructor.sealBlock(header);
+
+        assertSame(one, this.constructor.readVariable(x, header));
+        assertSame(one, this.constructor.readVariable(x, body));
+        assertTrue(phi.predecessors().isEmpty());
+        assertTrue(this.graph.successors(phi).isEmpty());
+    }
+
+    @Test
+    void removedPhisAreForwardedFromStoredDefinitions() {
+        Name x = name("x");
+        Name y = name("y");
+        Node one = this.constructor.newConstInt(1);
+        Node two = this.constructor.newConstInt(2);
+        this.constructor.writeVariable(x, this.graph.startBlock(), one);
+        this.constructor.writeVariable(y, this.graph.startBlock(), two);
+        // an outer loop around an inner loop that changes y, but not x
+        Block outer = block(this.graph, this.graph.startBlock());
+        Node outerX = this.constructor.readVariable(x, outer);
+        Block inner = block(this.graph, outer);
+        Node innerX = this.constructor.readVariable(x, inner);
+        this.constructor.readVariable(y, inner);
+        Block body = block(this.graph, inner);
+        this.constructor.sealBlock(body);
+        Node add = new AddNode(body, this.constructor.readVariable(x, body), this.constructor.readVariable(y, body));
+        this.constructor.writeVariable(y, body, add);
+        inner.addPredecessor(new Phi(body));
+        this.constructor.sealBlock(inner);
+        outer.addPredecessor(new Phi(inner));
+        this.constructor.sealBlock(outer);
+
+        // the inner phi of x is still the stored definition of the inner and body blocks
+        assertSame(one, this.constructor.readVariable(x, inner));
+        assertSame(one, this.constructor.readVariable(x, body));
+        assertSame(one, add.predecessor(0));
+        assertTrue(this.graph.successors(outerX).isEmpty());
+        assertTrue(this.graph.successors(innerX).isEmpty());
+        Node innerY = this.constructor.readVariable(y, inner);
+        assertInstanceOf(Phi.class, innerY);
+        assertSame(add, innerY.predecessor(1));
+        assertNotSame(innerY, this.constructor.readVariable(y, outer));
+    }
+
+    @Test
+    void longChainsOfBlocksDoNotRecurse() {
+        Name x = name("x");
+        Node one = this.constructor.newConstInt(1);
+        this.constructor.writeVariable(x, this.graph.startBlock(), one);
+        Block block = this.graph.startBlock();
+        for (int i = 0; i < 100_000; i++) {
+            block = block(this.graph, block);
+            this.constructor.sealBlock(block);
+        }
+
+        assertSame(one, this.constructor.readVariable(x, block));
+    }
+
+    private static Name name(String identifier) {
+        byte[] bytes = identifier.getBytes(StandardCharsets.UTF_8);
+        Span span = new Span.SourceSpan(new LineIndex(MemorySegment.ofArray(bytes)), 0, bytes.length);
+        return Name.forIdentifier(new Identifier(identifier, SymbolTable.idFor(identifier), span));
+    }
+}
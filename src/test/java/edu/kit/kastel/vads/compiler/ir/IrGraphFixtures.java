@@ -0,0 +1,30 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+
+/// Builds the parts of hand-written graphs that the IR tests share.
+/// The tests of the optimizations are in another package, so this is public.
+public final class IrGraphFixtures {
+    private IrGraphFixtures() {
+
+    }
+
+    /// {@return an unsealed block of the graph entered from the given ones}
+    public static Block block(IrGraph graph, Block... predecessors) {
+        Block block = new Block(graph);
+        for (Block predecessor : predecessors) {
+            // any node in the predecessor stands for the jump leaving it
+            block.addPredecessor(new Phi(predecessor));
+        }
+        return block;
+    }
+
+    /// {@return the side effect of a new start node in the given block}
+    public static Node sideEffect(Block block) {
+        return new ProjNode(block, new StartNode(block), ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+    }
+}
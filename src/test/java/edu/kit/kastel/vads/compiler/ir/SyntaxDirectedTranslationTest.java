@@ -0,0 +1,78 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
+import edu.kit.kastel.vads.compiler.semantic.SemanticException;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SyntaxDirectedTranslationTest {
+
+    @Test
+    void validProgramsAreAcceptedByBothAnalyses() {
+        for (String source : List.of(
+            "int main() { return 0; }",
+            "int main() { int x; x = 1; int y = x * 2; y += x; return y; }",
+            "int main() { return -2147483648; }",
+            "int main() { return 0; int x; return x; }",
+            "int main() { int x; return 1; x += 1; return x; }",
+            "int main() { int x = 1; return x; x = 2; }"
+        )) {
+            assertNull(treeError(source), source);
+            assertNull(inlineError(source), source);
+        }
+    }
+
+    @Test
+    void invalidProgramsAreRejectedWithTheSameError() {
+        for (String source : List.of(
+            "int main() { int x; return x; }",
+            "int main() { int x; x += 1; return 0; }",
+            "int main() { int x = x; return 0; }",
+            "int main() { return y; }",
+            "int main() { y = 1; return 0; }",
+            "int main() { int x; int x; return 0; }",
+            "int main() { return 2147483649; }",
+            "int main() { return 0x100000000; }",
+            "int main() { int x = 1; }",
+            "int main() { }",
+            "int main() { return 0; return y; }",
+            "int main() { return 0; y = 1; }",
+            "int main() { int x; return 0; int x; }",
+            // the reads are checked after the declarations of the function
+            "int main() { int x; int y = x; int y; return 0; }",
+            "int main() { int x; return x + 99999999999; }"
+        )) {
+            String expected = treeError(source);
+            assertNotNull(expected, source);
+            assertEquals(expected, inlineError(source), source);
+        }
+    }
+
+    private static @Nullable String treeError(String source) {
+        try {
+            new SemanticAnalysis(new Parser(new TokenSource(Lexer.forString(source))).parseProgram()).analyze();
+            return null;
+        } catch (SemanticException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static @Nullable String inlineError(String source) {
+        try {
+            new Parser(new TokenSource(Lexer.forString(source)))
+                .parseFunctions(new SyntaxDirectedTranslation(() -> node -> node));
+            return null;
+        } catch (SemanticException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VariableDefinitionsTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final VariableDefinitions definitions = new VariableDefinitions();
+
+    @Test
+    void missingDefinitionsAreNull() {
+        assertNull(this.definitions.get(0, 0));
+        this.definitions.put(0, 0, value(0));
+        assertNull(this.definitions.get(0, 1));
+        assertNull(this.definitions.get(1, 0));
+    }
+
+    @Test
+    void putReplacesTheDefinition() {
+        Node first = value(1);
+        Node second = value(2);
+        this.definitions.put(3, 7, first);
+        this.definitions.put(3, 7, second);
+        assertSame(second, this.definitions.get(3, 7));
+    }
+
+    @Test
+    void blockAndVariableAreDistinguished() {
+        Node a = value(1);
+        Node b = value(2);
+        this.definitions.put(1, 2, a);
+        this.definitions.put(2, 1, b);
+        assertSame(a, this.definitions.get(1, 2));
+        assertSame(b, this.definitions.get(2, 1));
+    }
+
+    @Test
+    void definitionsSurviveGrowing() {
+        // far more entries than the initial capacity, with dense keys that probe into each other
+        int count = 100;
+        Node[][] values = new Node[count][count];
+        for (int block = 0; block < count; block++) {
+            for (int variable = 0; variable < count; variable++) {
+                values[block][variable] = value(block * count + variable);
+                this.definitions.put(block, variable, values[block][variable]);
+            }
+        }
+        for (int block = 0; block < count; block++) {
+            for (int variable = 0; variable < count; variable++) {
+                assertSame(values[block][variable], this.definitions.get(block, variable));
+            }
+        }
+        assertNull(this.definitions.get(count, 0));
+        assertNull(this.definitions.get(0, count));
+    }
+
+    private Node value(int value) {
+        return new ConstIntNode(this.graph.startBlock(), value);
+    }
+}
@@ -0,0 +1,68 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.sideEffect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadNodeEliminationTest {
+    private final DeadNodeElimination elimination = new DeadNodeElimination();
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final Node sideEffect = sideEffect(this.start);
+    private final Node seven = new ConstIntNode(this.start, 7);
+
+    @Test
+    void replacedNodesAreRemoved() {
+        Node nine = new ConstIntNode(this.start, 9);
+        Node add = new AddNode(this.start, this.seven, nine);
+        ReturnNode ret = returnNode(this.sideEffect, add);
+        assertEquals(0, this.elimination.run(this.graph));
+
+        ret.setPredecessor(1, this.seven);
+        assertEquals(Set.of(add, ret), this.graph.successors(this.seven));
+        // the addition and the constant only it used
+        assertEquals(2, this.elimination.run(this.graph));
+        assertEquals(Set.of(ret), this.graph.successors(this.seven));
+        assertTrue(this.graph.successors(nine).isEmpty());
+        assertTrue(this.graph.successors(add).isEmpty());
+    }
+
+    @Test
+    void orphanedConstantsAreCounted() {
+        returnNode(this.sideEffect, this.seven);
+        // no inputs and no users, so the graph only knows it from its creation
+        new ConstIntNode(this.start, 5);
+        assertEquals(1, this.elimination.run(this.graph));
+        assertEquals(0, this.elimination.run(this.graph));
+    }
+
+    @Test
+    void trappingDivisionsWithUnusedResultsStayLive() {
+        Node zero = new ConstIntNode(this.start, 0);
+        Node div = new DivNode(this.start, this.seven, zero, this.sideEffect);
+        Node memory = new ProjNode(this.start, div, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        returnNode(memory, this.seven);
+        assertEquals(0, this.elimination.run(this.graph));
+        assertTrue(DeadNodeElimination.liveNodes(this.graph).contains(div));
+        assertEquals(Set.of(memory), this.graph.successors(div));
+        assertEquals(Set.of(div), this.graph.successors(zero));
+    }
+
+    private ReturnNode returnNode(Node sideEffect, Node result) {
+        ReturnNode ret = new ReturnNode(this.start, sideEffect, result);
+        this.graph.endBlock().addPredecessor(ret);
+        return ret;
+    }
+}
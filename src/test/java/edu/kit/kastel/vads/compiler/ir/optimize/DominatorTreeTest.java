@@ -0,0 +1,82 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.block;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DominatorTreeTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+
+    @Test
+    void diamond() {
+        Block left = block(this.graph, this.start);
+        Block right = block(this.graph, this.start);
+        Block join = block(this.graph, left, right);
+        this.graph.endBlock().addPredecessor(new Phi(join));
+        DominatorTree dominators = new DominatorTree(this.graph);
+
+        assertNull(dominators.immediateDominator(this.start));
+        assertSame(this.start, dominators.immediateDominator(left));
+        assertSame(this.start, dominators.immediateDominator(right));
+        assertSame(this.start, dominators.immediateDominator(join));
+        assertSame(join, dominators.immediateDominator(this.graph.endBlock()));
+        assertEquals(1, dominators.depth(right));
+        assertEquals(2, dominators.depth(this.graph.endBlock()));
+        assertTrue(dominators.dominates(this.start, join));
+        assertTrue(dominators.dominates(join, join));
+        assertFalse(dominators.dominates(left, join));
+        assertFalse(dominators.dominates(left, right));
+        assertEachAfterItsDominator(dominators);
+    }
+
+    @Test
+    void loop() {
+        Block header = block(this.graph, this.start);
+        Block body = block(this.graph, header);
+        header.addPredecessor(new Phi(body));
+        Block exit = block(this.graph, header);
+        this.graph.endBlock().addPredecessor(new Phi(exit));
+        DominatorTree dominators = new DominatorTree(this.graph);
+
+        assertSame(this.start, dominators.immediateDominator(header));
+        assertSame(header, dominators.immediateDominator(body));
+        assertSame(header, dominators.immediateDominator(exit));
+        assertEquals(2, dominators.depth(body));
+        assertTrue(dominators.dominates(header, body));
+        assertFalse(dominators.dominates(body, header));
+        assertFalse(dominators.dominates(body, exit));
+        assertEachAfterItsDominator(dominators);
+    }
+
+    @Test
+    void blocksThatCannotBeReachedAreNotDominated() {
+        Block unreachable = new Block(this.graph);
+        Block join = block(this.graph, this.start, unreachable);
+        this.graph.endBlock().addPredecessor(new Phi(join));
+        DominatorTree dominators = new DominatorTree(this.graph);
+
+        assertFalse(dominators.isReachable(unreachable));
+        assertSame(this.start, dominators.immediateDominator(join));
+        assertFalse(dominators.dominates(unreachable, join));
+        assertFalse(dominators.blocks().contains(unreachable));
+    }
+
+    private static void assertEachAfterItsDominator(DominatorTree dominators) {
+        List<Block> blocks = dominators.blocks();
+        for (int i = 0; i < blocks.size(); i++) {
+            Block dominator = dominators.immediateDominator(blocks.get(i));
+            assertTrue(dominator == null || blocks.indexOf(dominator) < i, blocks.get(i) + " before its dominator");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.block;
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.sideEffect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GlobalValueNumberingTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final Node sideEffect = sideEffect(this.start);
+    private final Node seven = new ConstIntNode(this.start, 7);
+    private final Node nine = new ConstIntNode(this.start, 9);
+
+    @Test
+    void diamond() {
+        Block left = block(this.graph, this.start);
+        Block right = block(this.graph, this.start);
+        Block join = block(this.graph, left, right);
+        // the same value on both sides, with operands in different order and constants in different blocks
+        Node leftAdd = new AddNode(left, this.seven, this.nine);
+        Node leftMul = new MulNode(left, leftAdd, new ConstIntNode(left, 3));
+        Node rightMul = new MulNode(right, new AddNode(right, this.nine, this.seven), new ConstIntNode(right, 3));
+        Phi phi = new Phi(join);
+        phi.appendOperand(leftMul);
+        phi.appendOperand(rightMul);
+        Node result = new SubNode(join, phi, new AddNode(join, this.nine, this.seven));
+        this.graph.endBlock().addPredecessor(new ReturnNode(join, this.sideEffect, result));
+
+        int merged = new GlobalValueNumbering().run(this.graph);
+
+        assertSame(phi.predecessor(0), phi.predecessor(1));
+        Node mul = phi.predecessor(0);
+        assertSame(this.start, mul.block());
+        assertSame(leftAdd, mul.predecessor(0));
+        assertSame(this.start, leftAdd.block());
+        assertSame(leftAdd, result.predecessor(1));
+        assertSame(this.start, result.predecessor(1).block());
+        // the second add, multiplication and constant, and the add of the join
+        assertEquals(4, merged);
+        assertEquals(1, this.graph.successors(this.seven).size());
+    }
+
+    @Test
+    void loop() {
+        Block header = block(this.graph, this.start);
+        Block body = block(this.graph, header);
+        header.addPredecessor(new Phi(body));
+        Block exit = block(this.graph, header);
+        Phi counter = new Phi(header);
+        Node step = new MulNode(body, this.seven, this.nine);
+        Node increment = new AddNode(body, counter, step);
+        counter.appendOperand(this.seven);
+        counter.appendOperand(increment);
+        Node sameIncrement = new AddNode(exit, new MulNode(exit, this.nine, this.seven), counter);
+        Node result = new SubNode(exit, sameIncrement, counter);
+        this.graph.endBlock().addPredecessor(new ReturnNode(exit, this.sideEffect, result));
+
+        new GlobalValueNumbering().run(this.graph);
+
+        // the increment depends on the phi, so it stays in the loop and only moves up to the header
+        Node merged = counter.predecessor(1);
+        assertSame(merged, result.predecessor(0));
+        assertSame(header, merged.block());
+        assertSame(header, result.block());
+        // the step does not change in the loop, so it moves out of it
+        Node hoisted = merged.predecessor(0) == counter ? merged.predecessor(1) : merged.predecessor(0);
+        assertInstanceOf(MulNode.class, hoisted);
+        assertSame(this.start, hoisted.block());
+        assertSame(this.start, step.block());
+        assertSame(header, counter.block());
+    }
+
+    @Test
+    void valuesOfSiblingBlocksAreNotMergedLocally() {
+        Block left = block(this.graph, this.start);
+        Block right = block(this.graph, this.start);
+        LocalValueNumbering numbering = new LocalValueNumbering();
+        Node leftAdd = numbering.transform(new AddNode(left, this.seven, this.nine));
+        Node rightAdd = numbering.transform(new AddNode(right, this.nine, this.seven));
+        Node leftSub = numbering.transform(new SubNode(left, this.seven, this.nine));
+        Node rightSub = numbering.transform(new SubNode(right, this.seven, this.nine));
+
+        assertNotSame(leftAdd, rightAdd);
+        assertNotSame(leftSub, rightSub);
+        assertSame(leftAdd, numbering.transform(new AddNode(left, this.nine, this.seven)));
+        assertTrue(rightSub.block() == right && rightAdd.block() == right);
+    }
+}
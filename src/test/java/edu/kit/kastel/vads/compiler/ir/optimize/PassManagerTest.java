@@ -0,0 +1,57 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.sideEffect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PassManagerTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final Node sum = new AddNode(this.start, new ConstIntNode(this.start, 2), new ConstIntNode(this.start, 3));
+    private final ReturnNode ret = new ReturnNode(this.start, sideEffect(this.start), this.sum);
+
+    PassManagerTest() {
+        this.graph.endBlock().addPredecessor(this.ret);
+    }
+
+    @Test
+    void expensivePassesAreSkippedAboveTheBudget() {
+        Set<Node> live = DeadNodeElimination.liveNodes(this.graph);
+        List<PassStatistics> statistics = new PassManager(OptimizationLevel.O3, live.size() - 1, true).run(this.graph);
+
+        PassStatistics propagation = statistics.getFirst();
+        assertEquals(new SparseConditionalConstantPropagation().name(), propagation.pass());
+        assertTrue(propagation.skipped());
+        assertEquals(0, propagation.changes());
+        for (PassStatistics pass : statistics.subList(1, statistics.size())) {
+            assertFalse(pass.skipped(), pass.pass());
+            assertEquals(0, pass.changes(), pass.pass());
+        }
+        assertSame(this.sum, this.ret.predecessor(ReturnNode.RESULT));
+        assertEquals(live, DeadNodeElimination.liveNodes(this.graph));
+    }
+
+    @Test
+    void expensivePassesRunWithinTheBudget() {
+        int nodes = DeadNodeElimination.liveNodes(this.graph).size();
+        List<PassStatistics> statistics = new PassManager(OptimizationLevel.O3, nodes, true).run(this.graph);
+
+        assertFalse(statistics.getFirst().skipped());
+        ConstIntNode result = assertInstanceOf(ConstIntNode.class, this.ret.predecessor(ReturnNode.RESULT));
+        assertEquals(5, result.value());
+    }
+}
@@ -0,0 +1,85 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.sideEffect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PeepholeTest {
+    private final Peephole peephole = new Peephole();
+    private final IrGraph graph = new IrGraph("test");
+    private final Block block = this.graph.startBlock();
+    private final Node sideEffect = sideEffect(this.block);
+    // a value that is not known to be constant
+    private final Node x = new Phi(this.block);
+
+    @Test
+    void minValueDividedByMinusOneIsKept() {
+        Node div = new DivNode(this.block, constant(Integer.MIN_VALUE), constant(-1), this.sideEffect);
+        assertSame(div, this.peephole.transform(div));
+        Node mod = new ModNode(this.block, constant(Integer.MIN_VALUE), constant(-1), this.sideEffect);
+        assertSame(mod, this.peephole.transform(mod));
+    }
+
+    @Test
+    void divisionByZeroIsKept() {
+        Node div = new DivNode(this.block, this.x, constant(0), this.sideEffect);
+        assertSame(div, this.peephole.transform(div));
+        Node mod = new ModNode(this.block, this.x, constant(0), this.sideEffect);
+        assertSame(mod, this.peephole.transform(mod));
+        Node constantDiv = new DivNode(this.block, constant(1), constant(0), this.sideEffect);
+        assertSame(constantDiv, this.peephole.transform(constantDiv));
+    }
+
+    @Test
+    void divisionsThatDoNotTrapAreFolded() {
+        Node seven = constant(7);
+        Node minusTwo = constant(-2);
+        assertConstant(-3, this.peephole.transform(new DivNode(this.block, seven, minusTwo, this.sideEffect)));
+        assertConstant(1, this.peephole.transform(new ModNode(this.block, seven, minusTwo, this.sideEffect)));
+        assertSame(this.x, this.peephole.transform(new DivNode(this.block, this.x, constant(1), this.sideEffect)));
+        assertConstant(0, this.peephole.transform(new ModNode(this.block, this.x, constant(1), this.sideEffect)));
+    }
+
+    @Test
+    void doubleNegationIsRemoved() {
+        Node negated = this.peephole.transform(new SubNode(this.block, constant(0), this.x));
+        assertInstanceOf(SubNode.class, negated);
+        Node sub = new SubNode(this.block, constant(0), negated);
+        assertSame(this.x, this.peephole.transform(sub));
+        assertTrue(sub.predecessors().isEmpty());
+    }
+
+    @Test
+    void subtractingAValueFromItselfIsZero() {
+        assertConstant(0, this.peephole.transform(new SubNode(this.block, this.x, this.x)));
+    }
+
+    @Test
+    void foldingWrapsAround() {
+        assertConstant(Integer.MAX_VALUE, this.peephole.transform(
+            new SubNode(this.block, constant(Integer.MIN_VALUE), constant(1))
+        ));
+    }
+
+    private Node constant(int value) {
+        return new ConstIntNode(this.block, value);
+    }
+
+    private void assertConstant(int expected, Node node) {
+        ConstIntNode constant = assertInstanceOf(ConstIntNode.class, node);
+        assertEquals(expected, constant.value());
+        assertSame(this.graph.startBlock(), constant.block());
+    }
+}
@@ -0,0 +1,100 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import org.junit.jupiter.api.Test;
+
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.block;
+import static edu.kit.kastel.vads.compiler.ir.IrGraphFixtures.sideEffect;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseConditionalConstantPropagationTest {
+    private final IrGraph graph = new IrGraph("test");
+    private final Block start = this.graph.startBlock();
+    private final Node sideEffect = sideEffect(this.start);
+    private final Node zero = new ConstIntNode(this.start, 0);
+    private final Node one = new ConstIntNode(this.start, 1);
+    private final Node six = new ConstIntNode(this.start, 6);
+
+    @Test
+    void divisionThroughALoopIsFoldedNextToATrappingDivision() {
+        assertFoldedAroundTrap(DivNode::new);
+    }
+
+    @Test
+    void divisionThroughALoopIsFoldedNextToATrappingModulo() {
+        assertFoldedAroundTrap(ModNode::new);
+    }
+
+    @Test
+    void phiOfDifferentConstantsIsNotFolded() {
+        Block left = block(this.graph, this.start);
+        Block right = block(this.graph, this.start);
+        Block join = block(this.graph, left, right);
+        Phi phi = new Phi(join);
+        phi.appendOperand(this.one);
+        phi.appendOperand(new ConstIntNode(this.start, 2));
+        Node sum = new AddNode(join, phi, this.one);
+        ReturnNode ret = new ReturnNode(join, this.sideEffect, sum);
+        this.graph.endBlock().addPredecessor(ret);
+
+        assertEquals(0, new SparseConditionalConstantPropagation().run(this.graph));
+        assertSame(sum, ret.predecessor(ReturnNode.RESULT));
+        assertSame(phi, sum.predecessor(BinaryOperationNode.LEFT));
+    }
+
+    /// Computes `x + 6 / (x + 1)` for a loop phi `x` that stays 1, next to a division by zero
+    /// that is part of the side effects of the loop.
+    private void assertFoldedAroundTrap(Division trapping) {
+        Block header = block(this.graph, this.start);
+        Block body = block(this.graph, header);
+        header.addPredecessor(new Phi(body));
+        Block exit = block(this.graph, header);
+        Phi x = new Phi(header);
+        Phi memory = new Phi(header);
+        x.appendOperand(this.one);
+        x.appendOperand(new MulNode(body, x, this.one));
+        Node div = new DivNode(body, this.six, new AddNode(body, x, this.one), memory);
+        Node divMemory = new ProjNode(body, div, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        Node divResult = new ProjNode(body, div, ProjNode.SimpleProjectionInfo.RESULT);
+        Node trap = trapping.create(body, this.six, this.zero, divMemory);
+        Node trapMemory = new ProjNode(body, trap, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        memory.appendOperand(this.sideEffect);
+        memory.appendOperand(trapMemory);
+        ReturnNode ret = new ReturnNode(exit, memory, new AddNode(exit, x, divResult));
+        this.graph.endBlock().addPredecessor(ret);
+
+        int replaced = new SparseConditionalConstantPropagation().run(this.graph);
+
+        ConstIntNode result = assertInstanceOf(ConstIntNode.class, ret.predecessor(ReturnNode.RESULT));
+        assertEquals(4, result.value());
+        assertSame(this.start, result.block());
+        // the phi, the multiplication, the inner addition, the division with both projections and the sum
+        assertEquals(7, replaced);
+        // the folded division is no longer between the loop's memory and the trap
+        assertSame(memory, ret.predecessor(ReturnNode.SIDE_EFFECT));
+        assertSame(memory, trap.predecessor(DivNode.SIDE_EFFECT));
+        assertSame(trapMemory, memory.predecessor(1));
+        assertSame(this.zero, trap.predecessor(BinaryOperationNode.RIGHT));
+        assertTrue(div.predecessors().isEmpty());
+        assertTrue(this.graph.successors(div).isEmpty());
+        assertTrue(this.graph.successors(x).isEmpty());
+    }
+
+    private interface Division {
+        Node create(Block block, Node left, Node right, Node sideEffect);
+    }
+}
@@ -0,0 +1,199 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LexerTest {
+
+    @Test
+    void longestOperatorIsLexed() {
+        assertTokens("a -= - b", "a", "-=", "-", "b");
+        assertTokens("a-=-b", "a", "-=", "-", "b");
+        assertTokens("x/=y/z", "x", "/=", "y", "/", "z");
+        assertTokens("x%=y%z*=w", "x", "%=", "y", "%", "z", "*=", "w");
+        assertTokens("--x", "-", "-", "x");
+        // a space ends an operator
+        assertTokens("a - = b", "a", "-", "=", "b");
+        assertInstanceOf(Operator.class, lex("-=").getFirst());
+        assertEquals(OperatorType.ASSIGN_MINUS, ((Operator) lex("-=").getFirst()).type());
+    }
+
+    @Test
+    void slashesOnlyStartCommentsWhenFollowedBySlashOrStar() {
+        assertTokens("a/*b*/c", "a", "c");
+        assertTokens("a/ *b", "a", "/", "*", "b");
+        assertTokens("a//b\nc", "a", "c");
+        assertTokens("a // b /* c\nd", "a", "d");
+        assertTokens("a */ b", "a", "*", "/", "b");
+        assertTokens("a/b", "a", "/", "b");
+    }
+
+    @Test
+    void blockCommentsNest() {
+        assertTokens("a /* b /* c */ d */ e", "a", "e");
+        assertTokens("a /* // */ b", "a", "b");
+        assertTokens("a /* /* */ */ /* */ b", "a", "b");
+    }
+
+    @Test
+    void unterminatedCommentsAreErrors() {
+        List<Token> tokens = lex("a /* b /* c */ d");
+        assertEquals(2, tokens.size());
+        ErrorToken error = assertInstanceOf(ErrorToken.class, tokens.getLast());
+        assertTrue(error.value().startsWith("/*"));
+        assertEquals("a /* b /* c */ d".length(), error.span().endOffset());
+        assertInstanceOf(ErrorToken.class, lex("/*").getFirst());
+        assertInstanceOf(ErrorToken.class, lex("/* */ /*/").getFirst());
+    }
+
+    @Test
+    void decimalLiteralsOverflowAbove2To31() {
+        assertLiteral("0", 10, 0, false);
+        assertLiteral("2147483647", 10, Integer.MAX_VALUE, false);
+        // only valid as operand of a negation
+        assertLiteral("2147483648", 10, Integer.MIN_VALUE, false);
+        assertLiteral("2147483649", 10, 0, true);
+        assertLiteral("99999999999999999999999", 10, 0, true);
+    }
+
+    @Test
+    void hexadecimalLiteralsOverflowAbove2To32() {
+        assertLiteral("0x0", 16, 0, false);
+        assertLiteral("0xFFFFFFFF", 16, -1, false);
+        assertLiteral("0X7fffffff", 16, Integer.MAX_VALUE, false);
+        assertLiteral("0x100000000", 16, 0, true);
+        assertLiteral("0x00000000FFFFFFFF", 16, -1, false);
+    }
+
+    @Test
+    void malformedLiteralsAreErrors() {
+        assertInstanceOf(ErrorToken.class, lex("0x").getFirst());
+        assertInstanceOf(ErrorToken.class, lex("007").getFirst());
+        assertTokens("0xg", "0x", "g");
+    }
+
+    @Test
+    void keywordsAreOnlyWholeIdentifiers() {
+        List<Token> tokens = lex("int intx return_ in _int INT NULL alloc_array alloc_arrays return");
+        assertTrue(tokens.get(0).isKeyword(KeywordType.INT));
+        assertIdentifier("intx", tokens.get(1));
+        assertIdentifier("return_", tokens.get(2));
+        assertIdentifier("in", tokens.get(3));
+        assertIdentifier("_int", tokens.get(4));
+        assertIdentifier("INT", tokens.get(5));
+        assertTrue(tokens.get(6).isKeyword(KeywordType.NULL));
+        assertTrue(tokens.get(7).isKeyword(KeywordType.ALLOC_ARRAY));
+        assertIdentifier("alloc_arrays", tokens.get(8));
+        assertTrue(tokens.get(9).isKeyword(KeywordType.RETURN));
+        for (KeywordType type : KeywordType.values()) {
+            assertTrue(lex(type.keyword()).getFirst().isKeyword(type), type.keyword());
+            assertIdentifier(type.keyword() + "1", lex(type.keyword() + "1").getFirst());
+        }
+    }
+
+    @Test
+    void identifiersShareTheirId() {
+        List<Token> tokens = lex("abc abd abc");
+        int first = ((Identifier) tokens.get(0)).id();
+        assertEquals(first, ((Identifier) tokens.get(2)).id());
+        assertFalse(first == ((Identifier) tokens.get(1)).id());
+    }
+
+    @Test
+    void tokenBufferMatchesTheRecords() {
+        String source = "int main() { int x = 0x1F; x -= -2147483648; /* c */ return x % 3; }";
+        TokenBuffer buffer = Lexer.forString(source).tokenize();
+        List<Token> tokens = lex(source);
+        assertEquals(tokens.size(), buffer.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(tokens.get(i).asString(), buffer.token(i).asString());
+            assertEquals(tokens.get(i).span().startOffset(), buffer.span(i).startOffset());
+            assertEquals(tokens.get(i).span().endOffset(), buffer.span(i).endOffset());
+        }
+        assertEquals(TokenKind.SEPARATOR, buffer.kind(3));
+        assertEquals(SeparatorType.PAREN_CLOSE, buffer.separatorType(3));
+    }
+
+    @Test
+    void vectorScannerMatchesTheScalarOne() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "no vector module");
+        ByteScanner scalar = new ByteScanner();
+        ByteScanner vector = new VectorByteScanner();
+        Random random = new Random(42);
+        List<String> inputs = new ArrayList<>(List.of(
+            "",
+            " ".repeat(200) + "x",
+            "\t\n\r ".repeat(50),
+            "int main() { /* a */ return 0; } // done\n",
+            "a".repeat(300) + "*/" + "b".repeat(100) + "{}"
+        ));
+        String alphabet = " \t\n\r*/{}ab;";
+        for (int i = 0; i < 50; i++) {
+            StringBuilder input = new StringBuilder();
+            // long runs of a single byte, so the vector loops are taken
+            while (input.length() < 500) {
+                input.repeat(alphabet.charAt(random.nextInt(alphabet.length())), 1 + random.nextInt(80));
+            }
+            inputs.add(input.toString());
+        }
+        for (String input : inputs) {
+            MemorySegment source = MemorySegment.ofArray(input.getBytes(StandardCharsets.US_ASCII));
+            int length = input.length();
+            for (int from = 0; from <= length; from++) {
+                for (int to : new int[] {from, Math.min(length, from + 37), length}) {
+                    String at = "at " + from + " to " + to + " in " + input.replace("\n", "\\n");
+                    assertEquals(scalar.skipBlanks(source, from, to), vector.skipBlanks(source, from, to), at);
+                    assertEquals(scalar.findLineBreak(source, from, to), vector.findLineBreak(source, from, to), at);
+                    assertEquals(
+                        scalar.findCommentDelimiter(source, from, to), vector.findCommentDelimiter(source, from, to), at
+                    );
+                    assertEquals(
+                        scalar.findBraceOrSlash(source, from, to), vector.findBraceOrSlash(source, from, to), at
+                    );
+                }
+            }
+        }
+    }
+
+    private static List<Token> lex(String source) {
+        Lexer lexer = Lexer.forString(source);
+        List<Token> tokens = new ArrayList<>();
+        Optional<Token> token;
+        while ((token = lexer.nextToken()).isPresent()) {
+            tokens.add(token.get());
+        }
+        return tokens;
+    }
+
+    private static void assertTokens(String source, String... expected) {
+        assertEquals(List.of(expected), lex(source).stream().map(Token::asString).toList(), source);
+    }
+
+    private static void assertLiteral(String source, int base, int value, boolean overflows) {
+        NumberLiteral literal = assertInstanceOf(NumberLiteral.class, lex(source).getFirst());
+        assertEquals(source, literal.value());
+        assertEquals(base, literal.base());
+        assertEquals(overflows, literal.overflows());
+        if (!overflows) {
+            assertEquals(value, literal.intValue());
+        }
+    }
+
+    private static void assertIdentifier(String expected, Token token) {
+        assertEquals(expected, assertInstanceOf(Identifier.class, token).value());
+    }
+}
@@ -0,0 +1,230 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
+import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParserTest {
+    private static final List<OperatorType> BINARY_OPERATORS = List.of(
+        OperatorType.PLUS, OperatorType.MINUS, OperatorType.MUL, OperatorType.DIV, OperatorType.MOD
+    );
+
+    @Test
+    void binaryOperatorsAreLeftAssociative() {
+        for (OperatorType first : BINARY_OPERATORS) {
+            for (OperatorType second : BINARY_OPERATORS) {
+                String source = "a " + first + " b " + second + " c";
+                String expected = precedence(second) > precedence(first)
+                    ? "(a " + first + " (b " + second + " c))"
+                    : "((a " + first + " b) " + second + " c)";
+                assertEquals(expected, expression(source), source);
+            }
+        }
+    }
+
+    @Test
+    void multiplicativeOperatorsBindStronger() {
+        assertEquals("((a + (b * c)) - ((d / e) % f))", expression("a + b * c - d / e % f"));
+        assertEquals("((a * (b + c)) % d)", expression("a * (b + c) % d"));
+        assertEquals("(a - (b - c))", expression("a - (b - c)"));
+        assertEquals("a", expression("((a))"));
+    }
+
+    @Test
+    void negationBindsStrongerThanBinaryOperators() {
+        assertEquals("(a - (-b))", expression("a - -b"));
+        assertEquals("(a - (-b))", expression("a--b"));
+        assertEquals("((-a) - b)", expression("-a - b"));
+        assertEquals("((-a) * (-b))", expression("-a * -b"));
+        assertEquals("(-(-a))", expression("- -a"));
+        assertEquals("(-(a + b))", expression("-(a + b)"));
+        assertEquals("((-(-a)) % b)", expression("--a % b"));
+    }
+
+    @Test
+    void minIntIsANegatedLiteral() {
+        NegateTree negate = assertInstanceOf(NegateTree.class, parseExpression("-2147483648"));
+        LiteralTree literal = assertInstanceOf(LiteralTree.class, negate.expression());
+        assertEquals("2147483648", literal.value());
+        assertEquals(Integer.MIN_VALUE, literal.intValue());
+        assertFalse(literal.overflows());
+        assertEquals("(1 - (-2147483648))", expression("1 - -2147483648"));
+    }
+
+    @Test
+    void longSumsDoNotRecurse() {
+        int terms = 200_000;
+        ExpressionTree tree = parseExpression("1" + " + 1".repeat(terms - 1));
+        int depth = 0;
+        while (tree instanceof BinaryOperationTree(ExpressionTree lhs, ExpressionTree rhs, OperatorType type)) {
+            assertEquals(OperatorType.PLUS, type);
+            assertInstanceOf(LiteralTree.class, rhs);
+            tree = lhs;
+            depth++;
+        }
+        assertInstanceOf(LiteralTree.class, tree);
+        assertEquals(terms - 1, depth);
+    }
+
+    @Test
+    void deepNestingDoesNotRecurse() {
+        int depth = 50_000;
+        ExpressionTree negations = parseExpression("-".repeat(depth) + "x");
+        for (int i = 0; i < depth; i++) {
+            negations = assertInstanceOf(NegateTree.class, negations).expression();
+        }
+        assertInstanceOf(IdentExpressionTree.class, negations);
+
+        ExpressionTree parens = parseExpression("(".repeat(depth) + "x" + ")".repeat(depth));
+        assertInstanceOf(IdentExpressionTree.class, parens);
+
+        ExpressionTree nested = parseExpression("(1 - ".repeat(depth) + "x" + ")".repeat(depth));
+        for (int i = 0; i < depth; i++) {
+            nested = assertInstanceOf(BinaryOperationTree.class, nested).rhs();
+        }
+        assertInstanceOf(IdentExpressionTree.class, nested);
+    }
+
+    @Test
+    void unbalancedParenthesesAreRejected() {
+        assertThrows(ParseException.class, () -> parseExpression("(a + b"));
+        assertThrows(ParseException.class, () -> parseExpression("a + b)"));
+        assertThrows(ParseException.class, () -> parseExpression("a + "));
+        assertThrows(ParseException.class, () -> parseExpression("a * / b"));
+    }
+
+    @Test
+    void onlyOneFunctionIsAcceptedByDefault() {
+        Lexer lexer = Lexer.forString("int a() { return 1; } int b() { return 2; }");
+        Parser parser = new Parser(new TokenSource(lexer), false);
+        ParseException e = assertThrows(ParseException.class, parser::parseProgram);
+        assertTrue(e.getMessage().startsWith("expected end of input"), e.getMessage());
+    }
+
+    @Test
+    void bracesInCommentsDoNotEndFunctions() {
+        String source = """
+            int a() { /* } */ return 1; } // }
+            int b() { // {
+              return 2; /* { /* } */ } */
+            }
+            int c() { return 3; }
+            """;
+        // lexers are consumed by parsing, so each check splits the source again
+        for (Lexer region : Lexer.forString(source).splitFunctions(1)) {
+            assertEquals(1, Parser.parseRegions(List.of(region), TreeBuilder::new).size());
+        }
+        Lexer lexer = Lexer.forString(source);
+        List<Lexer> regions = lexer.splitFunctions(1);
+        assertEquals(3, regions.size());
+        assertParsedTheSame(lexer, regions);
+    }
+
+    @Test
+    void trailingTextBelongsToTheLastRegion() {
+        Lexer lexer = Lexer.forString("int a() { return 1; } int b() { return 2; } int c()");
+        List<Lexer> regions = lexer.splitFunctions(1);
+        assertEquals(2, regions.size());
+        assertFailsTheSame(lexer, regions);
+    }
+
+    @Test
+    void unbalancedInputIsNotSplit() {
+        Lexer open = Lexer.forString("int a() { return 1; } int b() { return 2;");
+        assertEquals(List.of(open), open.splitFunctions(1));
+        Lexer closed = Lexer.forString("int a() { return 1; } } int b() { return 2; }");
+        assertEquals(List.of(closed), closed.splitFunctions(1));
+        Lexer comment = Lexer.forString("int a() { return 1; } /* int b() { return 2; }");
+        assertEquals(List.of(comment), comment.splitFunctions(1));
+    }
+
+    @Test
+    void longFunctionsAreNotSplit() {
+        String small = "int small() { return 0; }\n";
+        String large = "int large() { int x = 0; " + "x += 1; ".repeat(Parser.MIN_REGION_LENGTH / 8) + "return x; }\n";
+        assertTrue(large.length() > Parser.MIN_REGION_LENGTH);
+        String source = small + large + small + large + small;
+        // each region ends with a large function, the last small one is added to the last region
+        List<Lexer> last = Lexer.forString(source).splitFunctions(Parser.MIN_REGION_LENGTH);
+        assertEquals(3, Parser.parseRegions(List.of(last.getLast()), TreeBuilder::new).size());
+        Lexer lexer = Lexer.forString(source);
+        List<Lexer> regions = lexer.splitFunctions(Parser.MIN_REGION_LENGTH);
+        assertEquals(2, regions.size());
+        assertParsedTheSame(lexer, regions);
+    }
+
+    @Test
+    void theFirstErrorIsReported() {
+        Lexer lexer = Lexer.forString("""
+            int a() { return 1; }
+            int b() { return 2 }
+            int c() { return 3; }
+            int d() { return; }
+            """);
+        List<Lexer> regions = lexer.splitFunctions(1);
+        assertEquals(4, regions.size());
+        assertFailsTheSame(lexer, regions);
+    }
+
+    private static void assertParsedTheSame(Lexer lexer, List<Lexer> regions) {
+        ProgramTree split = new ProgramTree(Parser.parseRegions(regions, TreeBuilder::new));
+        // the regions share the source of the lexer, so the trees have equal spans
+        ProgramTree whole = new Parser(TokenSource.streaming(lexer), true).parseProgram();
+        assertEquals(whole, split);
+        assertEquals(
+            whole.topLevelTrees().stream().map(FunctionTree::span).toList(),
+            split.topLevelTrees().stream().map(FunctionTree::span).toList()
+        );
+    }
+
+    private static void assertFailsTheSame(Lexer lexer, List<Lexer> regions) {
+        ParseException split = assertThrows(
+            ParseException.class, () -> Parser.parseRegions(regions, TreeBuilder::new)
+        );
+        ParseException whole = assertThrows(
+            ParseException.class, () -> new Parser(TokenSource.streaming(lexer), true).parseProgram()
+        );
+        assertEquals(whole.getMessage(), split.getMessage());
+    }
+
+    private static ExpressionTree parseExpression(String expression) {
+        Lexer lexer = Lexer.forString("int main() { return " + expression + "; }");
+        ProgramTree program = new Parser(new TokenSource(lexer), false).parseProgram();
+        return ((ReturnTree) program.topLevelTrees().getFirst().body().statements().getFirst()).expression();
+    }
+
+    /// {@return the expression with parentheses around each operation}
+    private static String expression(String expression) {
+        return parenthesize(parseExpression(expression));
+    }
+
+    private static String parenthesize(ExpressionTree tree) {
+        return switch (tree) {
+            case BinaryOperationTree(var lhs, var rhs, var type) ->
+                "(" + parenthesize(lhs) + " " + type + " " + parenthesize(rhs) + ")";
+            case NegateTree(var expression, _) -> "(-" + parenthesize(expression) + ")";
+            case IdentExpressionTree(var name) -> name.name().asString();
+            case LiteralTree literal -> literal.value();
+        };
+    }
+
+    private static int precedence(OperatorType type) {
+        return type == OperatorType.PLUS || type == OperatorType.MINUS ? 1 : 2;
+    }
+}
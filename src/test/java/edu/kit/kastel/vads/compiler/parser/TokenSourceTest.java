@@ -0,0 +1,46 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.lexer.TokenBuffer;
+import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenSourceTest {
+    // far more tokens than fit into the ring of a streaming buffer
+    private static final String PROGRAM = "int main() { int x = 0; " + "x += 1; ".repeat(1000) + "return x; }";
+
+    @Test
+    void streamingParsesProgramsLongerThanTheRing() {
+        ProgramTree streamed = new Parser(TokenSource.streaming(Lexer.forString(PROGRAM))).parseProgram();
+        ProgramTree complete = new Parser(new TokenSource(Lexer.forString(PROGRAM))).parseProgram();
+        assertEquals(Printer.print(complete), Printer.print(streamed));
+    }
+
+    @Test
+    void tokensOutsideOfTheWindowAreRejected() {
+        TokenSource source = TokenSource.streaming(Lexer.forString(PROGRAM));
+        new Parser(source).parseProgram();
+        assertFalse(source.hasMore());
+        assertThrows(IllegalStateException.class, () -> source.span(0));
+    }
+
+    @Test
+    void streamingKeepsTheLookbehind() {
+        TokenBuffer complete = Lexer.forString(PROGRAM).tokenize();
+        TokenBuffer streaming = Lexer.forString(PROGRAM).stream(1);
+        assertTrue(streaming.has(3000));
+        assertEquals(complete.span(3000).startOffset(), streaming.span(3000).startOffset());
+        assertEquals(complete.span(2999).startOffset(), streaming.span(2999).startOffset());
+        assertEquals(complete.kind(2999), streaming.kind(2999));
+        // overwritten by later tokens
+        assertThrows(IllegalStateException.class, () -> streaming.kind(0));
+        assertThrows(IllegalStateException.class, () -> streaming.span(2000));
+        // not lexed yet
+        assertThrows(IllegalStateException.class, () -> streaming.kind(streaming.size()));
+    }
+}
@@ -0,0 +1,154 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AstArenaTest {
+    private static final String SOURCE = """
+        int main() {
+          int x;
+          int y = 0x1F + -(2 * x);
+          x = -2147483648;
+          ( (y) ) %= x - 99999999999;
+          int z = y / x;
+          y -= - - z;
+          int x2 = 0xFFFFFFFF;
+          return  x * (y + 3) - x;
+        }
+        """;
+
+    @Test
+    void nodesMatchTheirRecords() {
+        FunctionTree function = new Parser(new TokenSource(Lexer.forString(SOURCE))).parseProgram()
+            .topLevelTrees().getFirst();
+        List<Tree> trees = new ArrayList<>();
+        postorder(function, trees);
+        Map<Tree, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < trees.size(); i++) {
+            indices.put(trees.get(i), i);
+        }
+        AstArena arena = AstArena.of(function);
+
+        assertEquals(trees.size(), arena.size());
+        assertEquals(trees.size() - 1, arena.root());
+        for (int node = 0; node < trees.size(); node++) {
+            Tree tree = trees.get(node);
+            String at = "node " + node + " " + tree.getClass().getSimpleName();
+            assertEquals(kind(tree), arena.kind(node), at);
+            assertSpan(tree.span(), arena.span(node), at);
+            List<Tree> children = children(tree);
+            assertEquals(children.size(), arena.childCount(node), at);
+            // the last child is right before its parent, the others follow through previousSibling
+            int child = node - 1;
+            for (Tree expected : children.reversed()) {
+                assertEquals(indices.get(expected), child, at);
+                child = arena.previousSibling(child);
+            }
+            assertEquals(children.isEmpty() ? node : indices.get(first(children.getFirst())), arena.start(node), at);
+            switch (tree) {
+                case AssignmentTree assignment -> {
+                    assertEquals(assignment.operator().type(), arena.operatorType(node), at);
+                    assertSpan(assignment.operator().span(), arena.tokenSpan(node), at);
+                }
+                case BinaryOperationTree binary -> assertEquals(binary.operatorType(), arena.operatorType(node), at);
+                case DeclarationTree declaration -> assertEquals(
+                    declaration.initializer() == null ? -1 : indices.get(declaration.initializer()),
+                    arena.initializer(node), at
+                );
+                case LiteralTree literal -> {
+                    assertEquals(literal.value(), arena.literalText(node), at);
+                    assertEquals(literal.base(), arena.literalBase(node), at);
+                    assertEquals(literal.overflows(), arena.literalOverflows(node), at);
+                    assertEquals(literal.intValue(), arena.literalValue(node), at);
+                }
+                case NameTree name -> assertEquals(name.name(), arena.name(node), at);
+                case NegateTree negate -> assertSpan(negate.minusPos(), arena.tokenSpan(node), at);
+                case ReturnTree ret -> assertSpan(ret.returnPos(), arena.tokenSpan(node), at);
+                case TypeTree type -> assertSame(type.type(), arena.type(node), at);
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Test
+    void namesAreStoredOncePerFunction() {
+        FunctionTree function = new Parser(new TokenSource(Lexer.forString(SOURCE))).parseProgram()
+            .topLevelTrees().getFirst();
+        AstArena arena = AstArena.of(function);
+        int firstX = -1;
+        for (int node = 0; node < arena.size(); node++) {
+            if (arena.kind(node) == AstKind.NAME && arena.name(node).asString().equals("x")) {
+                if (firstX < 0) {
+                    firstX = node;
+                }
+                assertSame(arena.name(firstX), arena.name(node));
+            }
+        }
+    }
+
+    private static void assertSpan(Span expected, Span actual, String message) {
+        assertEquals(expected.startOffset(), actual.startOffset(), message);
+        assertEquals(expected.endOffset(), actual.endOffset(), message);
+    }
+
+    private static void postorder(Tree tree, List<Tree> trees) {
+        for (Tree child : children(tree)) {
+            postorder(child, trees);
+        }
+        trees.add(tree);
+    }
+
+    private static Tree first(Tree tree) {
+        Tree current = tree;
+        while (!children(current).isEmpty()) {
+            current = children(current).getFirst();
+        }
+        return current;
+    }
+
+    private static List<Tree> children(Tree tree) {
+        return switch (tree) {
+            case AssignmentTree(var lValue, _, var expression) -> List.of(lValue, expression);
+            case BinaryOperationTree(var lhs, var rhs, _) -> List.of(lhs, rhs);
+            case BlockTree(var statements, _) -> List.copyOf(statements);
+            case DeclarationTree(var type, var name, var initializer) ->
+                initializer == null ? List.of(type, name) : List.of(type, name, initializer);
+            case FunctionTree(var returnType, var name, var body) -> List.of(returnType, name, body);
+            case IdentExpressionTree(var name) -> List.of(name);
+            case LValueIdentTree(var name) -> List.of(name);
+            case NegateTree(var expression, _) -> List.of(expression);
+            case ReturnTree(var expression, _) -> List.of(expression);
+            case LiteralTree _, NameTree _, TypeTree _, ProgramTree _ -> List.of();
+        };
+    }
+
+    private static int kind(Tree tree) {
+        return switch (tree) {
+            case AssignmentTree _ -> AstKind.ASSIGNMENT;
+            case BinaryOperationTree _ -> AstKind.BINARY_OPERATION;
+            case BlockTree _ -> AstKind.BLOCK;
+            case DeclarationTree _ -> AstKind.DECLARATION;
+            case FunctionTree _ -> AstKind.FUNCTION;
+            case IdentExpressionTree _ -> AstKind.IDENT_EXPRESSION;
+            case LValueIdentTree _ -> AstKind.LVALUE_IDENT;
+            case LiteralTree _ -> AstKind.LITERAL;
+            case NameTree _ -> AstKind.NAME;
+            case NegateTree _ -> AstKind.NEGATE;
+            case ReturnTree _ -> AstKind.RETURN;
+            case TypeTree _ -> AstKind.TYPE;
+            case ProgramTree _ -> throw new IllegalArgumentException("programs are not stored in arenas");
+        };
+    }
+}
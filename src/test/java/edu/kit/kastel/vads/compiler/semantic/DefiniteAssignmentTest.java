@@ -0,0 +1,154 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.LineIndex;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.SymbolTable;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DefiniteAssignmentTest {
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int SLOTS = 2;
+
+    private final ControlFlowGraph graph = new ControlFlowGraph();
+    private final NameTree x = name("x");
+    private final NameTree y = name("y");
+
+    @Test
+    void straightLine() {
+        this.graph.define(X, this.x);
+        this.graph.use(X, this.x);
+        assertChecks();
+        this.graph.use(Y, this.y);
+        assertRejects(this.y);
+    }
+
+    @Test
+    void diamondNeedsAssignmentsOnBothBranches() {
+        // 0 -> 1 -> 3, 0 -> 2 -> 3, x is assigned on both branches and y only on one
+        int entry = this.graph.currentBlock();
+        int left = this.graph.newBlock();
+        this.graph.define(X, this.x);
+        this.graph.define(Y, this.y);
+        int right = this.graph.newBlock();
+        this.graph.define(X, this.x);
+        int join = this.graph.newBlock();
+        this.graph.use(X, this.x);
+        this.graph.addEdge(entry, left);
+        this.graph.addEdge(entry, right);
+        this.graph.addEdge(left, join);
+        this.graph.addEdge(right, join);
+        this.graph.finish();
+        int[] order = this.graph.reversePostorder();
+        assertEquals(entry, order[0]);
+        assertEquals(join, order[3]);
+        assertChecks();
+
+        this.graph.use(Y, this.y);
+        assertRejects(this.y);
+    }
+
+    @Test
+    void loopBodyDoesNotAssignBeforeTheFirstIteration() {
+        // 0 -> 1 <-> 2, 1 -> 3, the body assigns y, which the exit reads
+        int entry = this.graph.currentBlock();
+        this.graph.define(X, this.x);
+        int header = this.graph.newBlock();
+        this.graph.use(X, this.x);
+        int body = this.graph.newBlock();
+        this.graph.use(X, this.x);
+        this.graph.define(Y, this.y);
+        int exit = this.graph.newBlock();
+        this.graph.use(Y, this.y);
+        this.graph.addEdge(entry, header);
+        this.graph.addEdge(header, body);
+        this.graph.addEdge(body, header);
+        this.graph.addEdge(header, exit);
+        assertRejects(this.y);
+    }
+
+    @Test
+    void loopBodyMayReadWhatItAssignsBeforeTheRead() {
+        int entry = this.graph.currentBlock();
+        int header = this.graph.newBlock();
+        int body = this.graph.newBlock();
+        this.graph.define(Y, this.y);
+        this.graph.use(Y, this.y);
+        int exit = this.graph.newBlock();
+        this.graph.addEdge(entry, header);
+        this.graph.addEdge(header, body);
+        this.graph.addEdge(body, header);
+        this.graph.addEdge(header, exit);
+        assertChecks();
+    }
+
+    @Test
+    void loopBodyReadsBeforeItsAssignment() {
+        // the read in the second iteration would be fine, the one in the first is not
+        int entry = this.graph.currentBlock();
+        int body = this.graph.newBlock();
+        this.graph.use(Y, this.y);
+        this.graph.define(Y, this.y);
+        this.graph.addEdge(entry, body);
+        this.graph.addEdge(body, body);
+        assertRejects(this.y);
+    }
+
+    @Test
+    void unreachableBlocksAreNotChecked() {
+        int entry = this.graph.currentBlock();
+        this.graph.define(X, this.x);
+        this.graph.returnFromBlock();
+        int unreachable = this.graph.currentBlock();
+        this.graph.use(Y, this.y);
+        int next = this.graph.newBlock();
+        this.graph.use(Y, this.y);
+        this.graph.addEdge(unreachable, next);
+        this.graph.finish();
+        assertArrayEquals(new int[] {entry}, this.graph.reversePostorder());
+        assertChecks();
+
+        // an unreachable predecessor does not weaken the join
+        this.graph.clear();
+        int start = this.graph.currentBlock();
+        this.graph.define(X, this.x);
+        int dead = this.graph.newBlock();
+        int join = this.graph.newBlock();
+        this.graph.use(X, this.x);
+        this.graph.addEdge(start, join);
+        this.graph.addEdge(dead, join);
+        assertChecks();
+    }
+
+    private void assertChecks() {
+        this.graph.finish();
+        int[] order = this.graph.reversePostorder();
+        assertDoesNotThrow(() -> DefiniteAssignment.check(this.graph, order, 0, SLOTS));
+    }
+
+    private void assertRejects(NameTree name) {
+        this.graph.finish();
+        int[] order = this.graph.reversePostorder();
+        SemanticException e = assertThrows(
+            SemanticException.class, () -> DefiniteAssignment.check(this.graph, order, 0, SLOTS)
+        );
+        assertEquals("Variable " + name + " must be initialized before use", e.getMessage());
+    }
+
+    private static NameTree name(String identifier) {
+        byte[] bytes = identifier.getBytes(StandardCharsets.UTF_8);
+        Span span = new Span.SourceSpan(new LineIndex(MemorySegment.ofArray(bytes)), 0, bytes.length);
+        return new NameTree(Name.forIdentifier(new Identifier(identifier, SymbolTable.idFor(identifier), span)), span);
+    }
+}
@@ -0,0 +1,58 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SemanticAnalysisTest {
+
+    @Test
+    void readsMustFollowAnAssignment() {
+        assertAccepted("int main() { int x; x = 1; return x; }");
+        assertAccepted("int main() { int x = 1; x += 2; return x; }");
+        assertRejected("must be initialized before use", "int main() { int x; return x; }");
+        assertRejected("must be initialized before use", "int main() { int x; x += 1; return 0; }");
+        assertRejected("must be initialized before use", "int main() { int x = x; return 0; }");
+    }
+
+    @Test
+    void readsAfterAReturnAreNotChecked() {
+        // the code after a return cannot be reached, so every variable counts as assigned there
+        assertAccepted("int main() { return 0; int x; return x; }");
+        assertAccepted("int main() { int x; return 1; x += 1; return x; }");
+    }
+
+    @Test
+    void namesAfterAReturnMustBeDeclared() {
+        assertRejected("must be initialized before use", "int main() { return 0; return y; }");
+        assertRejected("must be declared before assignment", "int main() { return 0; y = 1; }");
+        assertRejected("is already declared", "int main() { int x; return 0; int x; }");
+    }
+
+    @Test
+    void functionsReturnIfTheEndOfTheBodyCannotBeReached() {
+        assertAccepted("int main() { return 0; }");
+        assertAccepted("int main() { int x = 1; return x; x = 2; }");
+        assertAccepted("int main() { return 1; return 2; }");
+        assertRejected("does not return", "int main() { int x = 1; }");
+        assertRejected("does not return", "int main() { }");
+    }
+
+    private static void assertAccepted(String source) {
+        assertDoesNotThrow(() -> analyze(source), source);
+    }
+
+    private static void assertRejected(String reason, String source) {
+        SemanticException e = assertThrows(SemanticException.class, () -> analyze(source), source);
+        assertTrue(e.getMessage().endsWith(reason), e.getMessage());
+    }
+
+    private static void analyze(String source) {
+        new SemanticAnalysis(new Parser(new TokenSource(Lexer.forString(source))).parseProgram()).analyze();
+    }
+}